@@ -0,0 +1,90 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Catalog generates synthetic book catalogs for the benchmarks.  Titles are 2 to 8 words and books
+ * have 1 to 3 authors, drawn from vocabularies sized so that common words and prolific authors are
+ * shared by many books, as in a real union catalog.  Generation is deterministic for a given seed.
+ */
+final class Catalog {
+
+    private static final String[] SYLLABLES = {
+        "an", "ber", "cal", "dor", "el", "fin", "gar", "hol", "is", "jun", "kel", "lor", "mar",
+        "nor", "or", "pel", "quin", "ros", "sel", "tor", "ul", "ven", "wil", "xan", "yor", "zel"
+    };
+
+    private Catalog() {
+        throw new AssertionError("not instantiable");
+    }
+
+    /**
+     * @param size number of distinct books
+     * @param seed random seed
+     * @return size distinct books with realistic title and author lengths
+     */
+    static List<Book> books(int size, long seed) {
+        Random random = new Random(seed);
+        String[] words = vocabulary(random, 5000, 1, 3);
+        String[] names = vocabulary(random, Math.max(100, size / 20), 2, 4);
+        List<Book> books = new ArrayList<Book>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder title = new StringBuilder();
+            int titleWords = 2 + random.nextInt(7);
+            for (int w = 0; w < titleWords; w++) {
+                if (w > 0) { title.append(' '); }
+                title.append(words[skewed(random, words.length)]);
+            }
+            // a serial number keeps every generated book distinct
+            title.append(' ').append(i);
+            String[] authors = new String[1 + random.nextInt(3)];
+            for (int a = 0; a < authors.length; a++) {
+                authors[a] = names[skewed(random, names.length)] + " " + names[random.nextInt(names.length)];
+            }
+            books.add(new Book(title.toString(), Arrays.asList(authors), 1800 + random.nextInt(220)));
+        }
+        return books;
+    }
+
+    /**
+     * @param books catalog to draw from
+     * @param count number of queries
+     * @param seed random seed
+     * @return a mix of exact titles, exact authors and single title words from books
+     */
+    static List<String> queries(List<Book> books, int count, long seed) {
+        Random random = new Random(seed);
+        List<String> queries = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = books.get(random.nextInt(books.size()));
+            switch (random.nextInt(3)) {
+            case 0: queries.add(book.getTitle()); break;
+            case 1: queries.add(book.getAuthors().get(0)); break;
+            default: queries.add(book.getTitle().split(" ")[0]); break;
+            }
+        }
+        return queries;
+    }
+
+    // a vocabulary of capitalized words made of minSyllables to maxSyllables syllables
+    private static String[] vocabulary(Random random, int size, int minSyllables, int maxSyllables) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = minSyllables + random.nextInt(maxSyllables - minSyllables + 1);
+            for (int s = 0; s < syllables; s++) { word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]); }
+            word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    // an index into an array of the given length, biased towards the front (roughly Zipfian)
+    private static int skewed(Random random, int length) {
+        double u = random.nextDouble();
+        return (int) (length * u * u * u);
+    }
+}
@@ -0,0 +1,173 @@
+package library;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the Library operations on every in-memory Library implementation over synthetic
+ * catalogs.  Run with bench.xml, which adds the gc profiler so every result also reports allocation per
+ * operation.
+ * 
+ * An implementation is named by its class, optionally followed by the class of a MatchEngine or
+ * SearchStrategy in parentheses, which is constructed with no arguments and passed to the library's
+ * constructor, e.g. library.BigLibrary(library.NgramMatchEngine).  BigLibrary is built with its query
+ * cache off, so find() scores every query; QueryCacheBenchmark measures find() answered from the cache.
+ * 
+ * The library is built once per trial.  Operations that change the catalog (buy, lose) are undone at
+ * the end of each iteration so every iteration measures a catalog of the same size.  checkoutCheckin
+ * checks out the next copy and checks it back in, so every call changes state twice and the library
+ * is left as it was; it measures the sum of one checkout and one checkin.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+public class LibraryBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({ "library.SmallLibrary", "library.IndexedSmallLibrary",
+             "library.BigLibrary", "library.BigLibrary(library.NgramMatchEngine)",
+             "library.BigLibrary(library.SuffixAutomatonEngine)", "library.BigLibrary(library.Bm25Search)",
+             "library.ConcurrentBigLibrary", "library.ConcurrentBigLibrary(library.SuffixAutomatonEngine)",
+             "library.ColumnarLibrary", "library.OffHeapLibrary", "library.FederatedLibrary" })
+    public String implementation;
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int books;
+
+    private Library library;
+    private List<Book> catalog;
+    private List<String> queries;
+    private BookCopy[] copies;
+    private int bookCursor;
+    private int copyCursor;
+    private int queryCursor;
+    private final List<BookCopy> bought = new ArrayList<BookCopy>();
+    private final List<Integer> lost = new ArrayList<Integer>();
+
+    @Setup(Level.Trial)
+    public void buildLibrary() throws ReflectiveOperationException {
+        library = newLibrary(implementation);
+        catalog = Catalog.books(books, 6005);
+        queries = Catalog.queries(catalog, QUERIES, 6005);
+        copies = new BookCopy[catalog.size()];
+        for (int i = 0; i < catalog.size(); i++) { copies[i] = library.buy(catalog.get(i)); }
+    }
+
+    // construct the library named by an implementation parameter.  BigLibrary, alone or as the
+    // branches of a FederatedLibrary, is built with its query cache off, so that find() measures
+    // scoring rather than cache hits; QueryCacheBenchmark measures the cache.
+    private static Library newLibrary(String implementation) throws ReflectiveOperationException {
+        int open = implementation.indexOf('(');
+        String libraryName = (open < 0) ? implementation : implementation.substring(0, open);
+        String searchName = (open < 0) ? null : implementation.substring(open + 1, implementation.length() - 1);
+        if (libraryName.equals(BigLibrary.class.getName())) { return uncachedBigLibrary(searchName); }
+        if (libraryName.equals(FederatedLibrary.class.getName())) {
+            List<Library> branches = new ArrayList<Library>();
+            for (int i = 0; i < FederatedLibrary.DEFAULT_BRANCHES; i++) { branches.add(uncachedBigLibrary(searchName)); }
+            return new FederatedLibrary(branches);
+        }
+        Class<?> libraryClass = Class.forName(libraryName);
+        if (searchName == null) { return (Library) libraryClass.newInstance(); }
+        Object search = Class.forName(searchName).newInstance();
+        for (Constructor<?> constructor : libraryClass.getConstructors()) {
+            Class<?>[] parameters = constructor.getParameterTypes();
+            if (parameters.length == 1 && parameters[0].isInstance(search)) {
+                return (Library) constructor.newInstance(search);
+            }
+        }
+        throw new IllegalArgumentException("no constructor for " + implementation);
+    }
+
+    // a BigLibrary with no query cache, searching with the named MatchEngine or SearchStrategy, or
+    // with the same suffix automaton as new BigLibrary() if searchName is null
+    private static BigLibrary uncachedBigLibrary(String searchName) throws ReflectiveOperationException {
+        Object search = (searchName == null) ? new SuffixAutomatonEngine() : Class.forName(searchName).newInstance();
+        SearchStrategy strategy = (search instanceof MatchEngine)
+                ? new SubstringSearch((MatchEngine) search) : (SearchStrategy) search;
+        return new BigLibrary(strategy, 0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreLibrary() {
+        for (BookCopy copy : bought) { library.lose(copy); }
+        bought.clear();
+        for (int i : lost) { copies[i] = library.buy(copies[i].getBook()); }
+        lost.clear();
+        for (BookCopy copy : copies) {
+            if (!library.isAvailable(copy)) { library.checkin(copy); }
+        }
+    }
+
+    private Book nextBook() {
+        if (bookCursor == catalog.size()) { bookCursor = 0; }
+        return catalog.get(bookCursor++);
+    }
+
+    private BookCopy nextCopy() {
+        if (copyCursor == copies.length) { copyCursor = 0; }
+        return copies[copyCursor++];
+    }
+
+    @Benchmark
+    public BookCopy buy() {
+        BookCopy copy = library.buy(nextBook());
+        bought.add(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public void checkoutCheckin() {
+        BookCopy copy = nextCopy();
+        library.checkout(copy);
+        library.checkin(copy);
+    }
+
+    @Benchmark
+    public Set<BookCopy> allCopies() {
+        return library.allCopies(nextBook());
+    }
+
+    @Benchmark
+    public Set<BookCopy> availableCopies() {
+        return library.availableCopies(nextBook());
+    }
+
+    @Benchmark
+    public List<Book> find() {
+        if (queryCursor == queries.size()) { queryCursor = 0; }
+        return library.find(queries.get(queryCursor++));
+    }
+
+    @Benchmark
+    public void lose() {
+        // once every copy is lost, keep losing the last one, which is a no-op of the same cost
+        if (lost.size() < copies.length) {
+            if (copyCursor == copies.length) { copyCursor = 0; }
+            lost.add(copyCursor);
+            library.lose(copies[copyCursor++]);
+        } else {
+            library.lose(copies[lost.get(lost.size() - 1)]);
+        }
+    }
+}
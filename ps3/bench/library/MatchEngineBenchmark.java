@@ -0,0 +1,75 @@
+package library;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for MatchEngine.match() alone, with find()'s minimum length, over synthetic catalogs.
+ * Run with bench.xml so the gc profiler reports the bytes each match allocates.  match() draws from
+ * Catalog's mix of queries, many of which match hundreds of books; matchTitle() looks up exact titles,
+ * which match about one book each, so its allocation is nearly all the engine's own working memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class MatchEngineBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({ "library.SuffixAutomatonEngine", "library.NgramMatchEngine" })
+    public String engineClass;
+
+    @Param({ "1000", "100000" })
+    public int books;
+
+    private MatchEngine engine;
+    private String[] queries;
+    private String[] titles;
+    private int queryCursor;
+    private int titleCursor;
+
+    @Setup(Level.Trial)
+    public void buildEngine() throws ReflectiveOperationException {
+        engine = (MatchEngine) Class.forName(engineClass).newInstance();
+        List<Book> catalog = Catalog.books(books, 6005);
+        engine.addAll(catalog);
+        List<String> drawn = Catalog.queries(catalog, QUERIES, 6005);
+        queries = new String[drawn.size()];
+        for (int i = 0; i < queries.length; i++) { queries[i] = drawn.get(i).toLowerCase(); }
+        titles = new String[QUERIES];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = catalog.get((int) ((long) i * catalog.size() / QUERIES)).getTitle().toLowerCase();
+        }
+    }
+
+    @Benchmark
+    public Map<Book, Integer> match() {
+        if (queryCursor == queries.length) { queryCursor = 0; }
+        String query = queries[queryCursor++];
+        return engine.match(query, query.length() - 2);
+    }
+
+    @Benchmark
+    public Map<Book, Integer> matchTitle() {
+        if (titleCursor == titles.length) { titleCursor = 0; }
+        String title = titles[titleCursor++];
+        return engine.match(title, title.length() - 2);
+    }
+}
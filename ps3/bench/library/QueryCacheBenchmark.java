@@ -0,0 +1,62 @@
+package library;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for BigLibrary.find() answered from its query cache, the counterpart of
+ * LibraryBenchmark.find(), which turns the cache off.  There are half as many distinct queries as the
+ * cache holds, and each is asked both as drawn and upper-cased.  The cache is filled during setup, so
+ * every find() measured is a hit, and what it costs is the lookup plus ranking the cached scores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class QueryCacheBenchmark {
+
+    private static final int QUERIES = BigLibrary.DEFAULT_CACHE_CAPACITY / 2;
+
+    @Param({ "1000", "100000" })
+    public int books;
+
+    private BigLibrary library;
+    private String[] queries;
+    private int queryCursor;
+
+    @Setup(Level.Trial)
+    public void buildLibrary() {
+        library = new BigLibrary();
+        List<Book> catalog = Catalog.books(books, 6005);
+        library.buyAll(catalog);
+        List<String> drawn = Catalog.queries(catalog, QUERIES, 6005);
+        queries = new String[2 * drawn.size()];
+        for (int i = 0; i < drawn.size(); i++) {
+            queries[2 * i] = drawn.get(i);
+            queries[2 * i + 1] = drawn.get(i).toUpperCase();
+        }
+        // fill the cache here, since the first pass over the queries can outlast the warmup
+        for (String query : drawn) { library.find(query); }
+    }
+
+    @Benchmark
+    public List<Book> findCached() {
+        if (queryCursor == queries.length) { queryCursor = 0; }
+        return library.find(queries[queryCursor++]);
+    }
+}
@@ -0,0 +1,173 @@
+package library;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BKTree is a mutable multiset of words indexed for bounded edit-distance lookup.  Each node's
+ * children are keyed by their Levenshtein distance from it, so by the triangle inequality a lookup
+ * within k edits of a query at distance d from a node only descends into children keyed d-k .. d+k,
+ * and visits a small part of the tree when k is small.
+ *
+ * Words whose count drops to zero stay in the tree as tombstones, skipped by lookups; the tree is
+ * rebuilt from the live words once tombstones outnumber them.
+ */
+class BKTree {
+
+    private Node root;
+    private final Map<String, Node> nodes;
+    private int deadCount;
+
+    // rep invariant:
+    //    root is null iff nodes is empty; nodes maps the word of every node in the tree to that node.
+    //    every child of a node n with key d has distance(n.word, child.word) == d, and the keys of
+    //      n's children are distinct.
+    //    count >= 0 for every node; deadCount is the number of nodes with count 0.
+    // abstraction function:
+    //    represents the multiset containing each node's word count times.
+    // safety from rep exposure:
+    //    all fields are private; nodes are never returned, and match() returns a fresh map.
+
+    private static class Node {
+        final String word;
+        int count;
+        int[] keys = new int[2];
+        Node[] children = new Node[2];
+        int childCount;
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node child(int key) {
+            for (int i = 0; i < childCount; i++)
+                if (keys[i] == key) { return children[i]; }
+            return null;
+        }
+
+        void addChild(int key, Node child) {
+            if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            keys[childCount] = key;
+            children[childCount++] = child;
+        }
+    }
+
+    public BKTree() {
+        this.nodes = new HashMap<String, Node>();
+    }
+
+    /**
+     * Add one occurrence of a word.
+     * @param word word to add
+     */
+    public void add(String word) {
+        Node node = nodes.get(word);
+        if (node == null) { node = insert(word); }
+        else if (node.count == 0) { deadCount--; }
+        node.count++;
+    }
+
+    // add a node for a word not in the tree; return it
+    private Node insert(String word) {
+        Node node = new Node(word);
+        nodes.put(word, node);
+        if (root == null) {
+            root = node;
+            return node;
+        }
+        Node parent = root;
+        while (true) {
+            int key = distance(word, parent.word);
+            Node child = parent.child(key);
+            if (child == null) {
+                parent.addChild(key, node);
+                return node;
+            }
+            parent = child;
+        }
+    }
+
+    /**
+     * Remove one occurrence of a word.  Has no effect if the word is not present.
+     * @param word word to remove
+     */
+    public void remove(String word) {
+        Node node = nodes.get(word);
+        if (node == null || node.count == 0) { return; }
+        node.count--;
+        if (node.count > 0) { return; }
+        deadCount++;
+        if (deadCount > nodes.size() - deadCount) { rebuild(); }
+    }
+
+    // rebuild the tree from the live words only
+    private void rebuild() {
+        List<Node> live = new ArrayList<Node>();
+        for (Node node : nodes.values())
+            if (node.count > 0) { live.add(node); }
+        root = null;
+        nodes.clear();
+        deadCount = 0;
+        for (Node old : live) { insert(old.word).count = old.count; }
+    }
+
+    /**
+     * Find the words within a number of edits of a query.
+     * @param query word to look up
+     * @param maxEdits largest Levenshtein distance of interest; must be nonnegative
+     * @return a fresh map from each word present at most maxEdits from query to its distance from query
+     */
+    public Map<String, Integer> match(String query, int maxEdits) {
+        Map<String, Integer> found = new HashMap<String, Integer>();
+        if (root == null) { return found; }
+        Deque<Node> pending = new ArrayDeque<Node>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int d = distance(query, node.word);
+            if (d <= maxEdits && node.count > 0) { found.put(node.word, d); }
+            for (int i = 0; i < node.childCount; i++)
+                if (Math.abs(node.keys[i] - d) <= maxEdits) { pending.push(node.children[i]); }
+        }
+        return found;
+    }
+
+    /**
+     * @param a a string
+     * @param b a string
+     * @return the Levenshtein distance between a and b: the fewest single-character insertions,
+     *    deletions and substitutions that turn a into b
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) { previous[j] = j; }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
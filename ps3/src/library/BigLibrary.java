@@ -4,12 +4,11 @@ import java.util.List;
 import java.util.Set;
 import java.util.Map;
 import java.util.HashSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 
 /**
@@ -19,93 +18,278 @@ import java.util.HashMap;
  * In particular, every operation needs to run faster than linear time (as a function of the number of books
  * in the library).
  */
-public class BigLibrary implements Library {
+public class BigLibrary implements IndexedLibrary {
 
+    /** number of queries whose results are cached, unless a constructor says otherwise */
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+    
     // rep:
-    private final Map<Book, Set<BookCopy>> allBooks;
-    private final Set<BookCopy> inLibrary;
-    private final Set<BookCopy> checkedOut;
-    private Map<Book, Integer> lenMatch;
-    private String lastkeyword;
+    private final Map<Book, Holdings> allBooks;
+    private final BitSet available;
+    private int[] freeIds;
+    private int freeCount;
+    private int nextId;
+    private final SearchStrategy strategy;
+    private final FuzzyIndex fuzzy;
+    private final FacetIndex facetIndex;
+    private final StringPool pool;
+    private final QueryCache<Map<Book, Integer>> cache;
     
     // rep invariant:
-    //    the intersection of inLibrary and checkedOut is the empty set.
-    //    allBooks map each book in the library to each copy in the library.
-    //    len match is the substring match of each book stores to the last keyword.
+    //    allBooks map each book in the library to the Holdings of its copies in the library;
+    //      no Holdings is empty, and a copy is available in its Holdings iff its bit is set in available.
+    //    every copy in the library is bound to this library with a distinct id in [0, nextId),
+    //      and freeIds[0 .. freeCount) are the ids in [0, nextId) not bound to any copy.
+    //    available only has bits set at the ids of copies in the library.
+    //    strategy, fuzzy and facetIndex contain exactly the books that are keys of allBooks.
+    //    the title and authors of every key of allBooks are the pool's String objects, and pool holds
+    //      exactly those strings, with one use per occurrence in a key.
+    //    every result in cache for a query q is an unmodified map equal to strategy.score(q), and q
+    //      is lower-case.
     // abstraction function:
-    //      represents the collection of books is allAvailable, all available is 
-    //      where if a book copy is in inLibrary then it is available,
-    //      and if a copy is in checkedOut then it is checked out
+    //      represents the collection of copies in the values of allBooks,
+    //      where a copy is available if the bit at its id is set in available,
+    //      and checked out otherwise
 
     // safety from rep exposure:
     //  all mutable objects returned to user are defensively copies. All fields are private and
-    //  final where possible.  lenMatch and lastKeyword are new exposed to the user.
+    //  final where possible.  cache, strategy, fuzzy and facetIndex are never exposed to the user.
+    //  a copy's id is package-private to BookCopy and only set by buy() and lose().
+    //  allCopiesView() and availableCopiesView() return unmodifiable views, which the user
+    //  cannot use to mutate the rep.
     // 
     
+    /**
+     * Make an empty BigLibrary whose find() is answered by a suffix automaton.
+     */
     public BigLibrary() {
-        this.allBooks = new HashMap<Book, Set<BookCopy>>();
-        this.inLibrary = new HashSet<BookCopy>();
-        this.checkedOut = new HashSet<BookCopy>();
-        this.lenMatch = new HashMap<Book, Integer>();
-        checkRep();
-    }
-    
-    // assert the rep invariant
-    private void checkRep() {
-        for (BookCopy copy: inLibrary) {
-            assert !(checkedOut.contains(copy));
-            assert (allBooks.containsKey(copy.getBook()));
+        this(new SuffixAutomatonEngine());
+    }
+    
+    /**
+     * Make an empty BigLibrary whose find() is a SubstringSearch using engine.
+     * @param engine empty MatchEngine used to answer find(); it becomes part of this library's rep
+     *    and must not be used by the client afterwards.
+     */
+    public BigLibrary(MatchEngine engine) {
+        this(new SubstringSearch(engine));
+    }
+    
+    /**
+     * Make an empty BigLibrary whose find() ranks books by their score in a SearchStrategy, breaking
+     * ties newest first, then by title, then by authors.
+     * @param strategy empty SearchStrategy used to answer find(); it becomes part of this library's
+     *    rep and must not be used by the client afterwards.
+     */
+    public BigLibrary(SearchStrategy strategy) {
+        this(strategy, DEFAULT_CACHE_CAPACITY);
+    }
+    
+    /**
+     * Make an empty BigLibrary whose find() ranks books by their score in a SearchStrategy, and which
+     * caches the results of recent queries.
+     * @param strategy empty SearchStrategy used to answer find(); it becomes part of this library's
+     *    rep and must not be used by the client afterwards.
+     * @param cacheCapacity most queries whose results are cached; 0 turns the cache off
+     */
+    public BigLibrary(SearchStrategy strategy, int cacheCapacity) {
+        this.allBooks = new HashMap<Book, Holdings>();
+        this.available = new BitSet();
+        this.freeIds = new int[16];
+        this.strategy = strategy;
+        this.fuzzy = new FuzzyIndex();
+        this.facetIndex = new FacetIndex();
+        this.pool = new StringPool();
+        this.cache = new QueryCache<Map<Book, Integer>>(cacheCapacity);
+        assert checkAll();
+    }
+    
+    // assert the rep invariant for the copies of book, and now and then (see RepAudit) for the whole rep
+    private void checkRep(Book book) {
+        assert checkBook(book);
+        assert freeCount <= nextId;
+        assert !RepAudit.sample(nextId - freeCount) || checkAll();
+    }
+    
+    // assert the rep invariant for the copies of book; return true so it can be called from an assert
+    private boolean checkBook(Book book) {
+        Holdings holdings = allBooks.get(book);
+        if (holdings == null) { return true; }
+        assert !holdings.isEmpty();
+        for (BookCopy copy : holdings.allView()) {
+            assert copy.owner() == this;
+            assert copy.getBook().equals(book);
+            assert copy.id() >= 0 && copy.id() < nextId;
+            assert holdings.isAvailable(copy) == available.get(copy.id());
         }
-        for (BookCopy copy : checkedOut) { assert allBooks.containsKey(copy.getBook()); }
+        return true;
+    }
+    
+    // assert the rep invariant for the copies of each of books; return true so it can be called from an assert
+    private boolean checkBooks(Collection<Book> books) {
+        for (Book book : new HashSet<Book>(books)) { assert checkBook(book); }
+        return true;
+    }
+    
+    // assert the whole rep invariant; return true so it can be called from an assert
+    private boolean checkAll() {
+        int copies = 0;
+        for (Map.Entry<Book, Holdings> entry : allBooks.entrySet()) {
+            assert checkBook(entry.getKey());
+            copies += entry.getValue().totalCount();
+        }
+        assert copies + freeCount == nextId;
+        assert available.length() <= nextId;
+        return true;
+    }
+    
+    // return a Book equal to book made from pool's strings, adding a use of each
+    private Book intern(Book book) {
+        String[] authors = new String[book.authorCount()];
+        for (int i = 0; i < authors.length; i++) { authors[i] = pool.get(pool.acquire(book.author(i))); }
+        return new Book(pool.get(pool.acquire(book.getTitle())), authors, book.getYear());
+    }
+    
+    // drop the uses of book's strings added by intern()
+    private void release(Book book) {
+        pool.release(pool.find(book.getTitle()));
+        for (int i = 0; i < book.authorCount(); i++) { pool.release(pool.find(book.author(i))); }
+    }
+    
+    // return true iff copy is in this library
+    private boolean owns(BookCopy copy) {
+        return copy.owner() == this;
     }
 
     @Override
     public BookCopy buy(Book book) {
-        BookCopy newCopy = new BookCopy(book);
-        if (allBooks.containsKey(book)) { allBooks.get(book).add(newCopy); }
-        else { 
-            Set<BookCopy> tempSet = new HashSet<BookCopy>(Arrays.asList(newCopy));
-            allBooks.put(book, tempSet);
+        Holdings holdings = allBooks.get(book);
+        if (holdings == null) { 
+            book = intern(book);
+            holdings = new Holdings();
+            allBooks.put(book, holdings);
+            strategy.add(book);
+            cache.invalidate();
+            fuzzy.add(book);
+            facetIndex.add(book);
+        } else {
+            // share the Book object already held, so the caller's equal copy of it can be collected
+            book = holdings.book();
         }
-        inLibrary.add(newCopy);
-        checkRep();
+        BookCopy newCopy = new BookCopy(book);
+        int id = (freeCount > 0) ? freeIds[--freeCount] : nextId++;
+        newCopy.bind(this, id);
+        holdings.add(newCopy);
+        available.set(id);
+        checkRep(book);
         return newCopy;
     }
     
+    /**
+     * Buy a new copy of each of many books.  Same effect as calling buy() on each book in turn, but
+     * faster for large collections: the library's tables are sized once for all the new copies, the
+     * rep invariant is checked once at the end for the books bought, and new books are indexed for
+     * find() in one batch.
+     * @param books books to buy a copy of, in order; a book may appear more than once
+     * @return list of the new copies, the i-th being a copy of the i-th book of books
+     */
+    public List<BookCopy> buyAll(Collection<Book> books) {
+        List<BookCopy> newCopies = new ArrayList<BookCopy>(books.size());
+        Map<Book, Holdings> newBooks = new HashMap<Book, Holdings>(books.size() * 4 / 3 + 1);
+        for (Book book : books) {
+            Holdings holdings = allBooks.get(book);
+            if (holdings == null) { holdings = newBooks.get(book); }
+            if (holdings == null) {
+                book = intern(book);
+                holdings = new Holdings();
+                newBooks.put(book, holdings);
+            } else {
+                book = holdings.book();
+            }
+            BookCopy newCopy = new BookCopy(book);
+            int id = (freeCount > 0) ? freeIds[--freeCount] : nextId++;
+            newCopy.bind(this, id);
+            holdings.add(newCopy);
+            newCopies.add(newCopy);
+        }
+        // putAll() grows allBooks once for all the new books, rather than doubling repeatedly
+        allBooks.putAll(newBooks);
+        strategy.addAll(newBooks.keySet());
+        if (!newBooks.isEmpty()) { cache.invalidate(); }
+        for (Book book : newBooks.keySet()) {
+            fuzzy.add(book);
+            facetIndex.add(book);
+        }
+        for (BookCopy newCopy : newCopies) { available.set(newCopy.id()); }
+        assert checkBooks(books);
+        assert !RepAudit.sample(nextId - freeCount) || checkAll();
+        return newCopies;
+    }
+    
     @Override
     public void checkout(BookCopy copy) {
-        inLibrary.remove(copy);
-        checkedOut.add(copy);
-        checkRep();
+        if (owns(copy) && available.get(copy.id())) {
+            available.clear(copy.id());
+            allBooks.get(copy.getBook()).checkout(copy);
+        }
+        checkRep(copy.getBook());
     }
     
     @Override
     public void checkin(BookCopy copy) {
-        checkedOut.remove(copy);
-        inLibrary.add(copy);
-        checkRep();
+        if (owns(copy) && !available.get(copy.id())) {
+            available.set(copy.id());
+            allBooks.get(copy.getBook()).checkin(copy);
+        }
+        checkRep(copy.getBook());
     }
     
     @Override
     public Set<BookCopy> allCopies(Book book) {
         if (allBooks.containsKey(book))
-            return new HashSet<BookCopy>(allBooks.get(book));
+            return new HashSet<BookCopy>(allBooks.get(book).allView());
         else { return Collections.emptySet(); }
     }
 
     @Override
     public Set<BookCopy> availableCopies(Book book) {
-        Set<BookCopy> copies = new HashSet<BookCopy>();
-        if (!allBooks.containsKey(book)) { return Collections.emptySet(); }
-        for (BookCopy copy : allBooks.get(book)) 
-            if (inLibrary.contains(copy)) { copies.add(copy); }
-        return copies;
-        
+        if (allBooks.containsKey(book))
+            return new HashSet<BookCopy>(allBooks.get(book).availableView());
+        else { return Collections.emptySet(); }
+    }
+    
+    @Override
+    public Set<BookCopy> allCopiesView(Book book) {
+        Holdings holdings = allBooks.get(book);
+        return (holdings == null) ? Collections.<BookCopy>emptySet() : holdings.allView();
+    }
+    
+    @Override
+    public Set<BookCopy> availableCopiesView(Book book) {
+        Holdings holdings = allBooks.get(book);
+        return (holdings == null) ? Collections.<BookCopy>emptySet() : holdings.availableView();
+    }
+    
+    @Override
+    public int availableCount(Book book) {
+        Holdings holdings = allBooks.get(book);
+        return (holdings == null) ? 0 : holdings.availableCount();
+    }
+    
+    @Override
+    public int totalCount(Book book) {
+        Holdings holdings = allBooks.get(book);
+        return (holdings == null) ? 0 : holdings.totalCount();
     }
    
     @Override
     public boolean isAvailable(BookCopy copy) {
-        return inLibrary.contains(copy);
+        return owns(copy) && available.get(copy.id());
+    }
+    
+    // return true iff this library has an available copy of book
+    private boolean hasAvailable(Book book) {
+        return availableCount(book) > 0;
     }
     
     /**
@@ -113,98 +297,152 @@ public class BigLibrary implements Library {
      * match to the query in the book.getAuthors and book.getTitle.  The minimum length of substring match is
      * query.length - 3.  If the substring matches are the same length then it returns the newest books first.
      * All else being equal the books will be sorted in alpha order.
+     * 
+     * That is the spec with the default SubstringSearch strategy.  With another SearchStrategy, find()
+     * returns the books it scores, highest score first, then newest first, then in alpha order.
      */   
     @Override
     public List<Book> find(String query) {
-        query = query.toLowerCase();
-        if (!query.equals(this.lastkeyword)) { this.lenMatch = new HashMap<Book, Integer>(); }
-        Set<Book> findResult = new TreeSet<Book>(new BookComparator(query));
-        for (Book book : this.allBooks.keySet()) {
-            String aMatcher = book.getTitle() + " ";
-            for (String author : book.getAuthors()) { aMatcher += author; }
-            int bookMatch = longestSubstr(query, aMatcher.toLowerCase());
-            lenMatch.put(book, bookMatch);
-            if (bookMatch > (query.length() - 3)) { findResult.add(book); }
+        Map<Book, Integer> scores = score(query);
+        List<Book> findResult = new ArrayList<Book>(scores.keySet());
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
+    }
+    
+    /**
+     * Search for the best few books in this library's collection.
+     * @param query search string
+     * @param limit maximum number of books to return; must be positive
+     * @return the first min(limit, find(query).size()) books of find(query), in the same order.
+     *    Scoring still finds every one of the n matches, in O(n) space; ranking them then takes
+     *    O(limit) more space and O(n log limit) time.  Each call scores and ranks anew, so reading
+     *    results a page at a time with growing limits costs O(n) per page; use findCursor() instead.
+     */
+    public List<Book> find(String query, int limit) {
+        assert limit > 0;
+        Map<Book, Integer> scores = score(query);
+        return SearchCursor.top(scores.keySet(), new MatchComparator(scores), limit);
+    }
+    
+    /**
+     * Search this library's collection for books that also satisfy some facets.  The year and author
+     * facets are looked up in secondary indexes; if the smallest of those postings holds fewer books
+     * than the collection, only its books that satisfy every facet are scored, and the query cache is
+     * not used.  Otherwise the whole collection is scored, as by find(query), and the matches are
+     * checked against the facets.  Availability is not indexed: each candidate's Holdings answers it in
+     * constant time, so a search restricted only to available books scores the whole collection.
+     * @param query search string
+     * @param facets restrictions on the books returned
+     * @return the books of find(query) that satisfy facets, in the same order
+     */
+    public List<Book> find(String query, Facets facets) {
+        Collection<Book> narrowest = facetIndex.narrowest(facets);
+        Map<Book, Integer> scores;
+        List<Book> findResult;
+        if (narrowest != null && narrowest.size() < allBooks.size()) {
+            List<Book> candidates = facetIndex.select(narrowest, facets, this::hasAvailable);
+            scores = strategy.score(query.toLowerCase(), candidates);
+            findResult = new ArrayList<Book>(scores.keySet());
+        } else {
+            scores = score(query);
+            findResult = facetIndex.select(scores.keySet(), facets, this::hasAvailable);
         }
-        this.lastkeyword = query;
-        return new ArrayList<Book>(findResult);
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
     }
     
     @Override
-    public void lose(BookCopy copy) {
-        Book book = copy.getBook();
-        allBooks.get(book).remove(copy);
-        if (allBooks.get(book).size() == 0) { allBooks.remove(book); }
-        inLibrary.remove(copy);
-        checkedOut.remove(copy);
-        checkRep();
-    }
-    
-    //Code used from http://stackoverflow.com/questions/17150311/
-    //java-implementation-for-longest-common-substring-of-n-strings this is a lazy implementation w/o Tries
-    //but assuming short strings should have less overhead.
-    private static int longestSubstr(String first, String second) {
-        if (first == null || second == null || first.length() == 0 || second.length() == 0) {
-            return 0;
-        }
-
-        int maxLen = 0;
-        int fl = first.length();
-        int sl = second.length();
-        int[][] table = new int[fl][sl];
-
-        for (int i = 0; i < fl; i++) {
-            for (int j = 0; j < sl; j++) {
-                if (first.charAt(i) == second.charAt(j)) {
-                    if (i == 0 || j == 0) {
-                        table[i][j] = 1;
-                    }
-                    else {
-                        table[i][j] = table[i - 1][j - 1] + 1;
-                    }
-                    if (table[i][j] > maxLen) {
-                        maxLen = table[i][j];
-                    }
-                }
-            }
+    public List<Book> findByTitle(String title) {
+        List<Book> books = facetIndex.withTitle(title);
+        Collections.sort(books, MatchComparator.NEWEST_FIRST);
+        return books;
+    }
+    
+    @Override
+    public List<Book> findByAuthor(String author) {
+        List<Book> books = facetIndex.withAuthor(author);
+        Collections.sort(books, MatchComparator.NEWEST_FIRST);
+        return books;
+    }
+    
+    /**
+     * Search this library's collection a page at a time.
+     * @param query search string
+     * @param pageSize maximum number of books per page; must be positive
+     * @return a cursor whose pages, concatenated, are find(query) at the time of this call
+     */
+    public SearchCursor findCursor(String query, int pageSize) {
+        assert pageSize > 0;
+        Map<Book, Integer> scores = score(query);
+        return new SearchCursor(scores.keySet(), new MatchComparator(scores), pageSize);
+    }
+    
+    // return the scores of the books matching query, from the cache if they are there.  Scoring
+    // ignores case, so queries differing only in case share one cache entry.
+    private Map<Book, Integer> score(String query) {
+        String key = query.toLowerCase();
+        Map<Book, Integer> scores = cache.get(key);
+        if (scores == null) {
+            scores = strategy.score(key);
+            cache.put(key, scores);
         }
-        return maxLen;
+        return scores;
     }
     
-    /*
-     * Comparator class that uses the longestSubstr Map to sort books.  The longest substring
-     * match get the highest priority.  Meant to be used in a case insensitive manner with matches 
-     * of same length giving precedence to newer books. All else being equal the list will be sorted
-     * in alphabetical order. 
+    /**
+     * @return number of find(), find(query, limit) and findCursor() calls answered from the query cache
      */
-    private class BookComparator implements Comparator<Book> {
-        private String keyword;
-        public BookComparator(String keyword) { this.keyword = keyword; }
-        
-        @Override
-        public int compare(Book a, Book b) {
-            if (!lenMatch.containsKey(a)) { 
-                String aMatcher = a.getTitle() + " ";
-                for (String author : a.getAuthors()) { aMatcher += author; }
-                lenMatch.put(a, longestSubstr(this.keyword, aMatcher));
-            }
-            if (!lenMatch.containsKey(b)) {
-                String bMatcher = b.getTitle() + " ";
-                for (String author : b.getAuthors()) { bMatcher += author; }
-                lenMatch.put(b, longestSubstr(this.keyword, bMatcher));
-            }
-            int alen = lenMatch.get(a);
-            int blen = lenMatch.get(b);            
-            if (alen < blen) { return 1; }
-            else if (alen > blen) { return -1; }
-            else { 
-                if (a.getYear() < b.getYear()) { return 1; }
-                else if (a.getYear() > b.getYear()) { return -1; }
-                else { return a.getTitle().compareTo(b.getTitle()); }
-            }
+    public long cacheHits() {
+        return cache.hits();
+    }
+    
+    /**
+     * @return number of find(), find(query, limit) and findCursor() calls that had to score the collection
+     */
+    public long cacheMisses() {
+        return cache.misses();
+    }
+    
+    /**
+     * Search this library's collection, tolerating typos.  The query and each book's title and authors
+     * are split into words: maximal runs of letters and digits, compared case-insensitively.
+     * @param query search string
+     * @param maxEdits most single-character insertions, deletions and substitutions allowed between
+     *    a word of the query and a word of a book; must be nonnegative
+     * @return the books in this library with at least one word within maxEdits of a word of query.
+     *    Books are ranked by score, highest first: each distinct word of query within maxEdits of a
+     *    word of the book adds maxEdits + 1 - (fewest edits between them).  Ties are broken as in
+     *    find(): newest first, then by title, then by authors.
+     */
+    public List<Book> findFuzzy(String query, int maxEdits) {
+        assert maxEdits >= 0;
+        Map<Book, Integer> scores = fuzzy.match(query, maxEdits);
+        List<Book> findResult = new ArrayList<Book>(scores.keySet());
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
+    }
+    
+    @Override
+    public void lose(BookCopy copy) {
+        if (!owns(copy)) { return; }
+        Book book = copy.getBook();
+        Holdings holdings = allBooks.get(book);
+        holdings.remove(copy);
+        if (holdings.isEmpty()) { 
+            allBooks.remove(book);
+            strategy.remove(book);
+            cache.invalidate();
+            fuzzy.remove(book);
+            facetIndex.remove(book);
+            release(book);
         }
+        available.clear(copy.id());
+        if (freeCount == freeIds.length) { freeIds = Arrays.copyOf(freeIds, freeCount * 2); }
+        freeIds[freeCount++] = copy.id();
+        copy.unbind();
+        checkRep(book);
     }
-
+    
     // uncomment the following methods if you need to implement equals and hashCode,
     // or delete them if you don't
     // @Override
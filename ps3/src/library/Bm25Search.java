@@ -0,0 +1,246 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bm25Search is a SearchStrategy that ranks books by Okapi BM25 over the words of their titles and
+ * authors (see Tokens).  A book matches a query if it shares at least one word with it.  Words that are
+ * rare in the collection count for more, and a word counts for more in a book with fewer words.
+ *
+ * The index is inverted: each word has a posting list of the books containing it, so the cost of a
+ * query is proportional to the total length of the posting lists of its words, not to the size of
+ * the collection.  Posting lists are compressed as variable-length byte sequences of document id gaps
+ * and word counts.
+ *
+ * Removed books are left in the posting lists and skipped by queries; the index is rebuilt from the
+ * remaining books once removed ones outnumber them.
+ */
+public class Bm25Search implements SearchStrategy {
+
+    /** BM25 term frequency saturation */
+    static final double K1 = 1.2;
+    /** BM25 document length normalization */
+    static final double B = 0.75;
+    /** score() returns BM25 scores multiplied by SCALE and rounded, to keep 3 decimal places */
+    static final int SCALE = 1000;
+
+    private static final int INITIAL_DOCUMENTS = 16;
+
+    private final Map<Book, Integer> ids;
+    private Book[] books;
+    private int[] lengths;
+    private int documentCount;
+    private long totalLength;
+    private final Map<String, PostingList> postings;
+
+    // rep invariant:
+    //    ids maps every indexed book to a distinct id in [0, documentCount), and books[id] is that book;
+    //      books[id] == null for every other id below documentCount.
+    //    lengths[id] is the number of words (with repeats) of books[id]; totalLength is their sum over
+    //      indexed books.
+    //    postings.get(w) lists, in increasing id order, every id below documentCount whose book contained
+    //      w when it was added, each with the number of times w occurs in that book.  Its live count is
+    //      the number of those ids still indexed, and is positive.
+    // abstraction function:
+    //    represents the set of books ids.keySet().
+    // safety from rep exposure:
+    //    all fields are private and never returned; score() returns a fresh map.
+
+    /** A compressed, append-only list of (id, count) pairs in increasing id order. */
+    private static final class PostingList {
+        byte[] bytes = new byte[8];
+        int size;
+        int lastId = -1;
+        int live;
+
+        void add(int id, int count) {
+            writeVarint(id - lastId);
+            writeVarint(count);
+            lastId = id;
+            live++;
+        }
+
+        private void writeVarint(int value) {
+            if (size + 5 > bytes.length) { bytes = Arrays.copyOf(bytes, bytes.length * 2); }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+    }
+
+    public Bm25Search() {
+        this.ids = new HashMap<Book, Integer>();
+        this.postings = new HashMap<String, PostingList>();
+        clear();
+    }
+
+    // forget all books
+    private void clear() {
+        ids.clear();
+        postings.clear();
+        books = new Book[INITIAL_DOCUMENTS];
+        lengths = new int[INITIAL_DOCUMENTS];
+        documentCount = 0;
+        totalLength = 0;
+    }
+
+    // return each word of book's title and authors with its number of occurrences, in order of first occurrence
+    private static Map<String, Integer> wordCounts(Book book) {
+        List<String> words = new ArrayList<String>(Tokens.of(book.getTitle()));
+        for (String author : book.getAuthors()) { words.addAll(Tokens.of(author)); }
+        Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+        for (String word : words) {
+            Integer old = counts.get(word);
+            counts.put(word, old == null ? 1 : old + 1);
+        }
+        return counts;
+    }
+
+    @Override
+    public void add(Book book) {
+        if (ids.containsKey(book)) { return; }
+        int id = documentCount++;
+        if (id == books.length) {
+            books = Arrays.copyOf(books, id * 2);
+            lengths = Arrays.copyOf(lengths, id * 2);
+        }
+        ids.put(book, id);
+        books[id] = book;
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : wordCounts(book).entrySet()) {
+            PostingList list = postings.get(entry.getKey());
+            if (list == null) {
+                list = new PostingList();
+                postings.put(entry.getKey(), list);
+            }
+            list.add(id, entry.getValue());
+            length += entry.getValue();
+        }
+        lengths[id] = length;
+        totalLength += length;
+    }
+
+    @Override
+    public void remove(Book book) {
+        Integer id = ids.remove(book);
+        if (id == null) { return; }
+        for (String word : wordCounts(book).keySet()) {
+            PostingList list = postings.get(word);
+            list.live--;
+            // every id left in the list is removed, so the whole list can go
+            if (list.live == 0) { postings.remove(word); }
+        }
+        books[id] = null;
+        totalLength -= lengths[id];
+        if (documentCount - ids.size() > ids.size()) { rebuild(); }
+    }
+
+    // rebuild the index from the indexed books only
+    private void rebuild() {
+        List<Book> live = new ArrayList<Book>();
+        for (int id = 0; id < documentCount; id++)
+            if (books[id] != null) { live.add(books[id]); }
+        clear();
+        for (Book book : live) { add(book); }
+    }
+
+    // return the BM25 inverse document frequency of a word with the given posting list
+    private double idf(PostingList list) {
+        int n = ids.size();
+        return Math.log(1 + (n - list.live + 0.5) / (list.live + 0.5));
+    }
+
+    // return the BM25 score for a word of the given idf that occurs count times in the book with the given id
+    private double term(double idf, int count, int id) {
+        double averageLength = (double) totalLength / ids.size();
+        double norm = K1 * (1 - B + B * lengths[id] / averageLength);
+        return idf * count * (K1 + 1) / (count + norm);
+    }
+
+    @Override
+    public Map<Book, Integer> score(String query) {
+        Map<Integer, Double> sums = new HashMap<Integer, Double>();
+        for (String word : new LinkedHashSet<String>(Tokens.of(query))) {
+            PostingList list = postings.get(word);
+            if (list == null) { continue; }
+            double idf = idf(list);
+            byte[] bytes = list.bytes;
+            int position = 0;
+            int id = -1;
+            while (position < list.size) {
+                // decode two varints: the id gap, then the word count
+                int gap = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = bytes[position++];
+                    gap |= (b & 0x7F) << shift;
+                    if (b >= 0) { break; }
+                }
+                int count = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = bytes[position++];
+                    count |= (b & 0x7F) << shift;
+                    if (b >= 0) { break; }
+                }
+                id += gap;
+                if (books[id] == null) { continue; }
+                double term = term(idf, count, id);
+                Double old = sums.get(id);
+                sums.put(id, (old == null) ? term : old + term);
+            }
+        }
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (Map.Entry<Integer, Double> entry : sums.entrySet()) {
+            scores.put(books[entry.getKey()], (int) Math.round(entry.getValue() * SCALE));
+        }
+        return scores;
+    }
+
+    /**
+     * Scores each of the books given from its own words, without walking the posting lists, in time
+     * proportional to their number; the collection statistics are those of the whole index.
+     */
+    @Override
+    public Map<Book, Integer> score(String query, Collection<Book> books) {
+        List<String> words = new ArrayList<String>();
+        List<Double> idfs = new ArrayList<Double>();
+        for (String word : new LinkedHashSet<String>(Tokens.of(query))) {
+            PostingList list = postings.get(word);
+            if (list == null) { continue; }
+            words.add(word);
+            idfs.add(idf(list));
+        }
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        if (words.isEmpty()) { return scores; }
+        for (Book book : books) {
+            Integer id = ids.get(book);
+            if (id == null) { continue; }
+            Map<String, Integer> counts = wordCounts(book);
+            Double sum = null;
+            for (int i = 0; i < words.size(); i++) {
+                Integer count = counts.get(words.get(i));
+                if (count == null) { continue; }
+                // summed in the same order as score(query), so the rounded scores agree exactly
+                double term = term(idfs.get(i), count, id);
+                sum = (sum == null) ? term : sum + term;
+            }
+            if (sum != null) { scores.put(book, (int) Math.round(sum * SCALE)); }
+        }
+        return scores;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -12,23 +12,32 @@ import java.util.Arrays;
  */
 public class Book {
 
-    private final List<String> authors;
+    private final String[] authors;
     private final String title;
     private final int year;
+    private final int hash;
+    private String searchKey;
     
     
     // Rep Invariant:
-    //  authors is a list of authors. (must be non-empty and each author must have at least one non-space character.
+    //  authors holds the authors, in order. (must be non-empty and each author must have at least one non-space character.
     //  title is the case sensitive title of the book (must contain at least one non-space character)
     //  year is the publication date of the book in CE (must be positive)
+    //  hash is the hashCode() of the book computed from title, year and authors
+    //  searchKey is null or the lower-cased title, a space, then the concatenated authors
     // Abstraction Function:
     //  Represents a book of a given title, authors as they appear and given publication year.  Authors is order sensitive
     //  and each author is case sensitive. The title is case sensitive and should appear as it does on the cover.
     // Safety from rep exposure:
     //  All fields are private;
-    //  title and year are String and int types, so are guaranteed immutable;
-    //  authors is a mutable list so the constructor and getAuthors method will make
-    //  defensive copies to avoid sharing the rep's author object with clients. 
+    //  title, year, hash and searchKey are String and int types, so are guaranteed immutable;
+    //  searchKey is only filled in once, lazily, and always to the same value;
+    //  authors is a mutable array, but it is made by the constructors and never returned:
+    //  getAuthors makes a fresh list of the author strings.
+    // Space and speed:
+    //  authors is a bare array rather than a list.  A library may make its Books from the String
+    //  objects of its own StringPool, so that books sharing a title or author share one String, and
+    //  equals() finds them equal by reference before comparing characters.
     
     /**
      * Make a Book.
@@ -38,9 +47,22 @@ public class Book {
      * @param year Year when this edition was published in the conventional (Common Era) calendar.  Must be nonnegative. 
      */
     public Book(String title, List<String> authors, int year) {
-        this.authors = new ArrayList<String>(authors);
+        this(title, authors.toArray(new String[authors.size()]), year);
+    }
+    
+    /**
+     * Make a Book from an array of authors, which becomes part of its rep.
+     * @param title Title of the book
+     * @param authors Names of the authors of the book; must not be used by the caller afterwards
+     * @param year Year when this edition was published
+     */
+    Book(String title, String[] authors, int year) {
+        this.authors = authors;
         this.title = title;
         this.year = year;
+        int hashcode = title.hashCode() + year;
+        for (String author : authors) { hashcode += author.hashCode(); }
+        this.hash = hashcode;
         checkRep();
     }
     
@@ -50,7 +72,7 @@ public class Book {
         assert this.title != null;
         assert this.year >= 0;
         assert this.title.trim().length() > 0;
-        assert this.authors.size() > 0;
+        assert this.authors.length > 0;
         for (String author : this.authors) {
             assert author.trim().length() > 0;
         }
@@ -68,7 +90,7 @@ public class Book {
      * @return the authors of this book
      */
     public List<String> getAuthors() {
-        return new ArrayList<String>(this.authors);
+        return new ArrayList<String>(Arrays.asList(this.authors));
     }
 
     /**
@@ -77,39 +99,88 @@ public class Book {
     public int getYear() {
         return this.year;
     }
+    
+    /**
+     * @return the number of authors of this book
+     */
+    int authorCount() {
+        return this.authors.length;
+    }
+    
+    /**
+     * @param i index of an author, 0 <= i < authorCount()
+     * @return the i-th author of this book
+     */
+    String author(int i) {
+        return this.authors[i];
+    }
+
+    /**
+     * @param author name of an author
+     * @return true iff author is exactly (case-sensitive) one of the authors of this book; does not
+     *    copy the author list
+     */
+    boolean hasAuthor(String author) {
+        for (String a : this.authors) {
+            if (a.equals(author)) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * @return the text that substring search matches against: the title, a space, then the authors
+     *    with no separator, all lower-cased.  Computed once and cached.
+     */
+    String searchKey() {
+        String key = this.searchKey;
+        if (key == null) {
+            StringBuilder builder = new StringBuilder(this.title).append(' ');
+            for (String author : this.authors) { builder.append(author); }
+            key = builder.toString().toLowerCase();
+            this.searchKey = key;
+        }
+        return key;
+    }
+    
+    /**
+     * Compare the author lists of two books without copying them.
+     * @param that another book
+     * @return negative, zero or positive as this book's authors are lexicographically less than,
+     *    equal to or greater than that book's authors
+     */
+    int compareAuthors(Book that) {
+        int shared = Math.min(this.authors.length, that.authors.length);
+        for (int i = 0; i < shared; i++) {
+            int order = this.authors[i].compareTo(that.authors[i]);
+            if (order != 0) { return order; }
+        }
+        return this.authors.length - that.authors.length;
+    }
 
     /**
      * @return human-readable representation of this book that includes its title,
      *    authors, and publication year
      */
     public String toString() {
-        return "Title: " + this.title + " Authors: " + Arrays.toString(this.authors.toArray()) + 
+        return "Title: " + getTitle() + " Authors: " + Arrays.toString(getAuthors().toArray()) + 
                 " Publication Date: " + this.year;
     }
 
     
      @Override
      public boolean equals(Object that) {
-         if (that == null) { return false; }
+         if (this == that) { return true; }
          if (!(that instanceof Book)) { return false; }
          Book thatBook = (Book) that;
-         if (!(this.title.equals(thatBook.getTitle()))) { return false; }
-         if (!(this.year == thatBook.getYear())) { return false; }
-         if (!(this.authors.size() == thatBook.getAuthors().size())) { return false; }
-         for (int i = 0; i < this.authors.size(); i++) {
-             if (!(this.authors.get(i).equals(thatBook.getAuthors().get(i)))) { return false; }
-         }
-         return true;
+         if (this.hash != thatBook.hash) { return false; }
+         if (!(this.year == thatBook.year)) { return false; }
+         if (!this.title.equals(thatBook.title)) { return false; }
+         return Arrays.equals(this.authors, thatBook.authors);
      }
      
      @Override
      public int hashCode() {
-         int hashcode = this.title.hashCode();
-         hashcode += this.year;
-         for (String author : this.authors) {
-             hashcode += author.hashCode();
-         }
-         return hashcode;
+         return this.hash;
      }
 
 
@@ -8,14 +8,22 @@ public class BookCopy {
 
     private final Book book;
     private BookCopy.Condition condition = BookCopy.Condition.GOOD;
+    private Library owner;
+    private int id = -1;
+    private int slot = -1;
     
     // Rep Invariant:
-    //  The initial condition must be GOOD. book is a good instance of Book
+    //  The initial condition must be GOOD. book is a good instance of Book, or null for a handle made by
+    //    BookCopy(owner, id), whose subclass keeps its book and condition in owner instead
+    //  owner is null and id is -1, or owner is the library holding this copy and id is the
+    //  non-negative index it gave this copy
+    //  slot is -1, or the index of this copy in the Holdings that holds it
     // Abstraction Function:
     //  Book is the type of book of this copy. condition maps to the condition of this copy of the book
     // Safety from Rep exposure. 
     //  book is immutable and it's reference is final.  condition is private and therefore can only be accessed using getters and setters. 
     //  get returns a copy of the current condition.
+    //  owner, id and slot are package-private, set only by the library or Holdings that holds this copy.
     
     public static enum Condition {
         GOOD, DAMAGED
@@ -30,10 +38,73 @@ public class BookCopy {
         checkRep();
     }
     
+    /**
+     * Make a handle onto a copy whose book and condition are stored by the library that holds it.
+     * A subclass that uses this constructor must override getBook(), getCondition() and setCondition().
+     * @param owner library that holds the copy
+     * @param id non-negative index of the copy within owner
+     */
+    BookCopy(Library owner, int id) {
+        assert id >= 0;
+        this.book = null;
+        this.owner = owner;
+        this.id = id;
+    }
+    
     // assert the rep invariant
     private void checkRep() {
         assert this.book != null;
         assert this.condition == BookCopy.Condition.GOOD;
+        assert this.owner == null && this.id == -1 && this.slot == -1;
+    }
+    
+    /**
+     * Record that this copy now belongs to a library that identifies it by a dense index.
+     * @param owner library that holds this copy; this copy must not belong to any library
+     * @param id non-negative index of this copy within owner
+     */
+    void bind(Library owner, int id) {
+        assert this.owner == null;
+        assert id >= 0;
+        this.owner = owner;
+        this.id = id;
+    }
+    
+    /**
+     * Record that this copy no longer belongs to any library.
+     */
+    void unbind() {
+        this.owner = null;
+        this.id = -1;
+    }
+    
+    /**
+     * @return the library that holds this copy, or null if none does
+     */
+    Library owner() {
+        return this.owner;
+    }
+    
+    /**
+     * @return the index of this copy within owner(), or -1 if it belongs to no library
+     */
+    int id() {
+        return this.id;
+    }
+    
+    /**
+     * @return the index of this copy in the Holdings that holds it, or -1 if none does
+     */
+    int slot() {
+        return this.slot;
+    }
+    
+    /**
+     * Record where this copy is kept by the Holdings that holds it.
+     * @param slot index of this copy in that Holdings, or -1 if it no longer holds it
+     */
+    void setSlot(int slot) {
+        this.slot = slot;
     }
     
     /**
@@ -64,9 +135,9 @@ public class BookCopy {
      *    and the words "good" or "damaged" depending on its condition
      */
     public String toString() {
-        if (this.condition == BookCopy.Condition.GOOD) 
-            return "This copy of " + this.book.toString() + " is in good condition.";
-        else { return "This copy of " + this.book.toString() + " is damaged."; }
+        if (getCondition() == BookCopy.Condition.GOOD) 
+            return "This copy of " + getBook().toString() + " is in good condition.";
+        else { return "This copy of " + getBook().toString() + " is damaged."; }
     }
 
     
@@ -0,0 +1,68 @@
+package library;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BookRecords encodes Books as variable-length binary records for libraries that keep their catalog
+ * in buffers instead of objects, or write it to files: the year, the title, the number of authors, then
+ * the authors, with integers big-endian and each string as its length followed by its UTF-8 bytes.
+ * Any valid Book can be encoded, whatever the length of its strings.
+ */
+final class BookRecords {
+
+    private BookRecords() {
+        throw new AssertionError("not instantiable");
+    }
+
+    /**
+     * @param book a book
+     * @return a fresh array holding the record of book
+     */
+    static byte[] encode(Book book) {
+        List<String> authors = book.getAuthors();
+        List<byte[]> strings = new ArrayList<byte[]>();
+        strings.add(book.getTitle().getBytes(StandardCharsets.UTF_8));
+        int size = 4 + 4;
+        for (String author : authors) { strings.add(author.getBytes(StandardCharsets.UTF_8)); }
+        for (byte[] string : strings) { size += 4 + string.length; }
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.putInt(book.getYear());
+        record.putInt(strings.get(0).length).put(strings.get(0));
+        record.putInt(authors.size());
+        for (int i = 1; i < strings.size(); i++) { record.putInt(strings.get(i).length).put(strings.get(i)); }
+        assert !record.hasRemaining();
+        return record.array();
+    }
+
+    /**
+     * @param data buffer holding a record made by encode(); its position and limit are not used or changed
+     * @param offset index in data of the first byte of the record
+     * @return the book the record encodes
+     */
+    static Book decode(ByteBuffer data, int offset) {
+        ByteBuffer record = data.duplicate();
+        record.position(offset);
+        int year = record.getInt();
+        String title = readString(record);
+        int authorCount = record.getInt();
+        List<String> authors = new ArrayList<String>(authorCount);
+        for (int i = 0; i < authorCount; i++) { authors.add(readString(record)); }
+        return new Book(title, authors, year);
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,136 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BookTable is a small mutable map from Book to values, stored in two parallel arrays with open
+ * addressing and linear probing.  It has no per-entry node objects, so it is compact enough to
+ * embed in every one of millions of small libraries.
+ * 
+ * @param <V> type of the values
+ */
+class BookTable<V> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private Book[] keys;
+    private Object[] values;
+    private int size;
+
+    // rep invariant:
+    //    keys.length == values.length is a power of two, and 2 * size <= keys.length.
+    //    size is the number of non-null keys; keys are distinct, and values[i] != null iff keys[i] != null.
+    //    every key is reachable by probing linearly from slot(key) without crossing a null key.
+    // abstraction function:
+    //    represents the map from keys[i] to values[i] for every i with keys[i] != null.
+    // safety from rep exposure:
+    //    the arrays are private and never returned; keys() returns a fresh list.
+
+    public BookTable() {
+        this.keys = new Book[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @param book key to look up
+     * @return the value for book, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Book book) {
+        int mask = keys.length - 1;
+        for (int i = slot(book, mask); keys[i] != null; i = (i + 1) & mask)
+            if (keys[i].equals(book)) { return (V) values[i]; }
+        return null;
+    }
+
+    /**
+     * Set the value for a book.
+     * @param book key
+     * @param value value to store, not null
+     */
+    public void put(Book book, V value) {
+        assert value != null;
+        int mask = keys.length - 1;
+        int i = slot(book, mask);
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(book)) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = book;
+        values[i] = value;
+        size++;
+        if (2 * size > keys.length) { resize(keys.length * 2); }
+    }
+
+    /**
+     * Remove a book and its value.  Has no effect if book is not in the table.
+     * @param book key to remove
+     */
+    public void remove(Book book) {
+        int mask = keys.length - 1;
+        int i = slot(book, mask);
+        while (keys[i] != null && !keys[i].equals(book)) { i = (i + 1) & mask; }
+        if (keys[i] == null) { return; }
+        // shift later entries of the probe run back so no lookup crosses the hole
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            boolean movable = (hole <= j) ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    /**
+     * @return number of books in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a fresh list of the books in the table, in no particular order
+     */
+    public List<Book> keys() {
+        List<Book> books = new ArrayList<Book>(size);
+        for (Book book : keys)
+            if (book != null) { books.add(book); }
+        return books;
+    }
+
+    private void resize(int capacity) {
+        Book[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new Book[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) { continue; }
+            int i = slot(oldKeys[j], mask);
+            while (keys[i] != null) { i = (i + 1) & mask; }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int slot(Book book, int mask) {
+        int h = book.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
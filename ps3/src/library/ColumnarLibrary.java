@@ -0,0 +1,338 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ColumnarLibrary is a Library for very large collections that stores its copies in parallel arrays
+ * of primitives -- one array per attribute -- instead of one object per copy, so a copy costs 9 bytes
+ * of heap.  Each book is one immutable Book object, shared by every handle onto its copies, by find()
+ * results and by the search strategy, alongside primitive columns of its hash code and copy counts;
+ * title and author names are stored once each, in this library's StringPool.
+ *
+ * Measured with 200,000 books of two copies each (64-bit JVM, compressed references), the library
+ * takes about 183 bytes per book, copies included, with a SearchStrategy that indexes nothing, and
+ * about 2,800 bytes per book with the default SubstringSearch, whose suffix automaton dominates.
+ *
+ * The BookCopy objects it returns are flyweights: small handles holding only this library and the
+ * copy's index.  Two handles onto the same copy are equal; a handle's book is read from this library's
+ * books, and its condition from and to this library's arrays.  The index of a lost copy is never reused, so a handle
+ * onto a lost copy never comes to refer to another copy.
+ *
+ * find() has the same spec as BigLibrary.find() with the same SearchStrategy.
+ */
+public class ColumnarLibrary implements Library {
+
+    private static final int NONE = -1;
+    private static final byte LIVE = 1;
+    private static final byte AVAILABLE = 2;
+    private static final byte DAMAGED = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // book columns, indexed by book index
+    private int bookCount;
+    private Book[] rows;
+    private int[] hashes;
+    private int[] firstCopies;
+    private int[] totalCounts;
+    private int[] availableCounts;
+    // the strings of the books' titles and authors
+    private final StringPool pool;
+    // open-addressing hash table of book index + 1
+    private int[] slots;
+
+    // copy columns, indexed by copy index
+    private int copyCount;
+    private int[] copyBooks;
+    private int[] nextCopies;
+    private byte[] copyFlags;
+
+    private final SearchStrategy strategy;
+
+    // rep invariant:
+    //    every column has room for at least bookCount books or copyCount copies.  book i is rows[i],
+    //      with hash code hashes[i]; no two books are equal.
+    //    the title and authors of every book are the pool's String objects, and pool holds exactly
+    //      those strings, with one use per occurrence.  Books are never removed, so neither are their
+    //      strings.
+    //    slots.length is a power of two at least 2 * bookCount; every book index i appears as i + 1 in
+    //      slots, within the probe run starting at hashes[i], and no other non-zero entries appear.
+    //    the copies of book i with LIVE set are exactly those in the chain from firstCopies[i] through
+    //      nextCopies, each with copyBooks equal to i; totalCounts[i] and availableCounts[i] are the
+    //      numbers of them, and of them with AVAILABLE set.  a copy without LIVE has AVAILABLE clear.
+    //    strategy contains exactly the books with a non-zero totalCount, as the objects in rows.
+    // abstraction function:
+    //    represents the collection of copies whose index c < copyCount has LIVE set in copyFlags[c]: a
+    //      copy of book copyBooks[c], damaged iff DAMAGED is set, and available iff AVAILABLE is set.
+    // safety from rep exposure:
+    //    all fields are private, and the arrays are never returned.  strategy is never returned.
+    //    Sets and lists returned to the user are fresh; the Books in them are immutable.
+    //    Copy handles only hold this library and an index, and only their own copy's DAMAGED flag
+    //    can be changed through them.
+
+    /**
+     * Make an empty ColumnarLibrary whose find() is a SubstringSearch using a suffix automaton.
+     */
+    public ColumnarLibrary() {
+        this(new SubstringSearch());
+    }
+
+    /**
+     * Make an empty ColumnarLibrary whose find() ranks books by their score in a SearchStrategy, breaking
+     * ties newest first, then by title, then by authors.
+     * @param strategy empty SearchStrategy used to answer find(); it becomes part of this library's
+     *    rep and must not be used by the client afterwards.
+     */
+    public ColumnarLibrary(SearchStrategy strategy) {
+        this.rows = new Book[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.firstCopies = new int[INITIAL_CAPACITY];
+        this.totalCounts = new int[INITIAL_CAPACITY];
+        this.availableCounts = new int[INITIAL_CAPACITY];
+        this.slots = new int[2 * INITIAL_CAPACITY];
+        this.copyBooks = new int[INITIAL_CAPACITY];
+        this.nextCopies = new int[INITIAL_CAPACITY];
+        this.copyFlags = new byte[INITIAL_CAPACITY];
+        this.pool = new StringPool();
+        this.strategy = strategy;
+        assert checkAll();
+    }
+
+    // assert the rep invariant for the copies of book index b, and now and then (see RepAudit) for the whole rep
+    private void checkRep(int b) {
+        assert checkBook(b);
+        assert !RepAudit.sample(copyCount) || checkAll();
+    }
+
+    // assert the rep invariant for the copies of book index b; return true so it can be called from an assert
+    private boolean checkBook(int b) {
+        assert b >= 0 && b < bookCount;
+        int total = 0;
+        int available = 0;
+        for (int c = firstCopies[b]; c != NONE; c = nextCopies[c]) {
+            assert c < copyCount;
+            assert copyBooks[c] == b;
+            assert (copyFlags[c] & LIVE) != 0;
+            total++;
+            if ((copyFlags[c] & AVAILABLE) != 0) { available++; }
+        }
+        assert total == totalCounts[b];
+        assert available == availableCounts[b];
+        return true;
+    }
+
+    // assert the whole rep invariant; return true so it can be called from an assert
+    private boolean checkAll() {
+        assert Integer.bitCount(slots.length) == 1 && 2 * bookCount <= slots.length;
+        int live = 0;
+        for (int b = 0; b < bookCount; b++) {
+            assert checkBook(b);
+            assert lookup(rows[b]) == b;
+            live += totalCounts[b];
+        }
+        for (int c = 0; c < copyCount; c++) {
+            if ((copyFlags[c] & LIVE) != 0) { live--; }
+            else { assert (copyFlags[c] & AVAILABLE) == 0; }
+        }
+        assert live == 0;
+        return true;
+    }
+
+    @Override
+    public BookCopy buy(Book book) {
+        int b = lookup(book);
+        if (b == NONE) { b = addBook(book); }
+        if (copyCount == copyBooks.length) {
+            int capacity = 2 * copyCount;
+            copyBooks = Arrays.copyOf(copyBooks, capacity);
+            nextCopies = Arrays.copyOf(nextCopies, capacity);
+            copyFlags = Arrays.copyOf(copyFlags, capacity);
+        }
+        int c = copyCount++;
+        copyBooks[c] = b;
+        nextCopies[c] = firstCopies[b];
+        copyFlags[c] = LIVE | AVAILABLE;
+        firstCopies[b] = c;
+        availableCounts[b]++;
+        if (totalCounts[b]++ == 0) { strategy.add(rows[b]); }
+        checkRep(b);
+        return new Copy(this, c);
+    }
+
+    @Override
+    public void checkout(BookCopy copy) {
+        if (!isAvailable(copy)) { return; }
+        int c = copy.id();
+        copyFlags[c] &= ~AVAILABLE;
+        availableCounts[copyBooks[c]]--;
+        checkRep(copyBooks[c]);
+    }
+
+    @Override
+    public void checkin(BookCopy copy) {
+        if (!owns(copy) || isAvailable(copy)) { return; }
+        int c = copy.id();
+        copyFlags[c] |= AVAILABLE;
+        availableCounts[copyBooks[c]]++;
+        checkRep(copyBooks[c]);
+    }
+
+    @Override
+    public boolean isAvailable(BookCopy copy) {
+        return owns(copy) && (copyFlags[copy.id()] & AVAILABLE) != 0;
+    }
+
+    @Override
+    public Set<BookCopy> allCopies(Book book) {
+        return copiesOf(book, LIVE);
+    }
+
+    @Override
+    public Set<BookCopy> availableCopies(Book book) {
+        return copiesOf(book, AVAILABLE);
+    }
+
+    // return a fresh set of handles onto the copies of book that have all the given flags
+    private Set<BookCopy> copiesOf(Book book, byte required) {
+        int b = lookup(book);
+        if (b == NONE) { return Collections.emptySet(); }
+        Set<BookCopy> found = new HashSet<BookCopy>();
+        for (int c = firstCopies[b]; c != NONE; c = nextCopies[c]) {
+            if ((copyFlags[c] & required) == required) { found.add(new Copy(this, c)); }
+        }
+        return found;
+    }
+
+    /**
+     * Same stronger spec as BigLibrary.find().
+     */
+    @Override
+    public List<Book> find(String query) {
+        Map<Book, Integer> scores = strategy.score(query);
+        List<Book> findResult = new ArrayList<Book>(scores.keySet());
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
+    }
+
+    @Override
+    public void lose(BookCopy copy) {
+        if (!owns(copy)) { return; }
+        int c = copy.id();
+        int b = copyBooks[c];
+        // unlink the copy from its book's chain
+        int previous = NONE;
+        for (int d = firstCopies[b]; d != c; d = nextCopies[d]) { previous = d; }
+        if (previous == NONE) { firstCopies[b] = nextCopies[c]; }
+        else { nextCopies[previous] = nextCopies[c]; }
+        nextCopies[c] = NONE;
+        if ((copyFlags[c] & AVAILABLE) != 0) { availableCounts[b]--; }
+        copyFlags[c] &= DAMAGED;
+        if (--totalCounts[b] == 0) { strategy.remove(rows[b]); }
+        checkRep(b);
+    }
+
+    // return true iff copy is a handle onto a copy in this library
+    private boolean owns(BookCopy copy) {
+        return copy.owner() == this && (copyFlags[copy.id()] & LIVE) != 0;
+    }
+
+    // return the index of book, or NONE if it has never been recorded
+    private int lookup(Book book) {
+        int mask = slots.length - 1;
+        for (int slot = book.hashCode() & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int b = slots[slot] - 1;
+            if (hashes[b] == book.hashCode() && rows[b].equals(book)) { return b; }
+        }
+        return NONE;
+    }
+
+    // record a new book with no copies; return its index
+    private int addBook(Book book) {
+        if (bookCount == rows.length) {
+            int capacity = 2 * bookCount;
+            rows = Arrays.copyOf(rows, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            firstCopies = Arrays.copyOf(firstCopies, capacity);
+            totalCounts = Arrays.copyOf(totalCounts, capacity);
+            availableCounts = Arrays.copyOf(availableCounts, capacity);
+        }
+        int b = bookCount++;
+        String[] authors = new String[book.authorCount()];
+        for (int i = 0; i < authors.length; i++) { authors[i] = pool.get(pool.acquire(book.author(i))); }
+        rows[b] = new Book(pool.get(pool.acquire(book.getTitle())), authors, book.getYear());
+        hashes[b] = book.hashCode();
+        firstCopies[b] = NONE;
+        if (2 * bookCount > slots.length) { rehash(2 * slots.length); }
+        else { insertSlot(b); }
+        return b;
+    }
+
+    // grow the hash table to capacity slots and reinsert every book
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int b = 0; b < bookCount; b++) { insertSlot(b); }
+    }
+
+    private void insertSlot(int b) {
+        int mask = slots.length - 1;
+        int slot = hashes[b] & mask;
+        while (slots[slot] != 0) { slot = (slot + 1) & mask; }
+        slots[slot] = b + 1;
+    }
+
+    /**
+     * Copy is a flyweight handle onto a copy in a ColumnarLibrary.  It holds nothing but the library and
+     * the copy's index, which it keeps in BookCopy's owner and id; equality is by library and index.
+     */
+    private static final class Copy extends BookCopy {
+
+        Copy(ColumnarLibrary library, int c) {
+            super(library, c);
+        }
+
+        private ColumnarLibrary library() {
+            return (ColumnarLibrary) owner();
+        }
+
+        @Override
+        public Book getBook() {
+            return library().rows[library().copyBooks[id()]];
+        }
+
+        @Override
+        public Condition getCondition() {
+            if ((library().copyFlags[id()] & DAMAGED) != 0) { return Condition.DAMAGED; }
+            else { return Condition.GOOD; }
+        }
+
+        @Override
+        public void setCondition(Condition condition) {
+            if (condition == Condition.DAMAGED) { library().copyFlags[id()] |= DAMAGED; }
+            else { library().copyFlags[id()] &= ~DAMAGED; }
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            if (!(that instanceof Copy)) { return false; }
+            Copy thatCopy = (Copy) that;
+            return this.owner() == thatCopy.owner() && this.id() == thatCopy.id();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(owner()) + id();
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,224 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ConcurrentBigLibrary is a thread-safe BigLibrary: any number of threads may call any operation
+ * at the same time.  Circulation (checkout, checkin, buy and lose of a book already in the catalog)
+ * locks only the copies of the Book involved, so operations on different books never contend.
+ * find() runs concurrently with circulation and sees a consistent snapshot of the catalog.
+ * find() has the same stronger spec as BigLibrary.find().
+ */
+public class ConcurrentBigLibrary implements Library {
+
+    // rep:
+    private final ConcurrentMap<Book, Set<BookCopy>> allBooks;
+    private final Set<BookCopy> inLibrary;
+    private final Set<BookCopy> checkedOut;
+    private final MatchEngine engine;
+    private final ReadWriteLock catalog;
+
+    // rep invariant:
+    //    the intersection of inLibrary and checkedOut is the empty set.
+    //    allBooks maps each book in the library to the non-empty set of its copies in the library.
+    //    engine contains exactly the books that are keys of allBooks.
+    // abstraction function:
+    //    represents the collection of copies in the values of allBooks, where if a book copy
+    //      is in inLibrary then it is available, and if a copy is in checkedOut then it is checked out.
+    // safety from rep exposure:
+    //    all fields are private and final; sets returned to the user are defensive copies.
+    // thread safety argument:
+    //    inLibrary, checkedOut and allBooks are thread-safe collections.
+    //    each copy set in allBooks is only read or written while holding its own lock, and only
+    //      after checking it is still the set allBooks holds for its book (lose() retires the set
+    //      of a book whose last copy is lost, and buy() then starts a new one).  So all changes to
+    //      the copies of one book, and to their membership in inLibrary and checkedOut, are serialized.
+    //    the keys of allBooks and the contents of engine only change under catalog's write lock,
+    //      and find() reads them under its read lock, so find() sees them change together.
+    //    lock order is a copy set's lock, then catalog's write lock; find() takes no copy set lock.
+
+    /**
+     * Make an empty ConcurrentBigLibrary whose find() is answered by a suffix automaton.
+     */
+    public ConcurrentBigLibrary() {
+        this(new SuffixAutomatonEngine());
+    }
+
+    /**
+     * Make an empty ConcurrentBigLibrary.
+     * @param engine empty MatchEngine used to answer find(); its match() must be safe to call from
+     *    several threads at once.  It becomes part of this library's rep and must not be used by the
+     *    client afterwards.
+     */
+    public ConcurrentBigLibrary(MatchEngine engine) {
+        this.allBooks = new ConcurrentHashMap<Book, Set<BookCopy>>();
+        this.inLibrary = Collections.newSetFromMap(new ConcurrentHashMap<BookCopy, Boolean>());
+        this.checkedOut = Collections.newSetFromMap(new ConcurrentHashMap<BookCopy, Boolean>());
+        this.engine = engine;
+        this.catalog = new ReentrantReadWriteLock();
+    }
+
+    // assert the rep invariant for the copies of one book; caller must hold the lock of copies
+    private void checkRep(Set<BookCopy> copies) {
+        for (BookCopy copy : copies) { assert !(inLibrary.contains(copy) && checkedOut.contains(copy)); }
+    }
+
+    @Override
+    public BookCopy buy(Book book) {
+        BookCopy newCopy = new BookCopy(book);
+        while (true) {
+            Set<BookCopy> copies = allBooks.get(book);
+            if (copies == null) {
+                if (addBook(newCopy)) { return newCopy; }
+                continue;
+            }
+            synchronized (copies) {
+                if (allBooks.get(book) != copies) { continue; }
+                copies.add(newCopy);
+                inLibrary.add(newCopy);
+                checkRep(copies);
+                return newCopy;
+            }
+        }
+    }
+
+    // add the book of firstCopy to the catalog with firstCopy as its only copy, unless the book is
+    // already there; return true iff it was added
+    private boolean addBook(BookCopy firstCopy) {
+        Book book = firstCopy.getBook();
+        catalog.writeLock().lock();
+        try {
+            if (allBooks.containsKey(book)) { return false; }
+            // the set is filled in before it is published, so no other thread can see it empty
+            Set<BookCopy> copies = new HashSet<BookCopy>();
+            copies.add(firstCopy);
+            inLibrary.add(firstCopy);
+            allBooks.put(book, copies);
+            engine.add(book);
+            return true;
+        } finally {
+            catalog.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void checkout(BookCopy copy) {
+        while (true) {
+            Set<BookCopy> copies = allBooks.get(copy.getBook());
+            if (copies == null) { return; }
+            synchronized (copies) {
+                if (allBooks.get(copy.getBook()) != copies) { continue; }
+                if (!copies.contains(copy)) { return; }
+                inLibrary.remove(copy);
+                checkedOut.add(copy);
+                checkRep(copies);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void checkin(BookCopy copy) {
+        while (true) {
+            Set<BookCopy> copies = allBooks.get(copy.getBook());
+            if (copies == null) { return; }
+            synchronized (copies) {
+                if (allBooks.get(copy.getBook()) != copies) { continue; }
+                if (!copies.contains(copy)) { return; }
+                checkedOut.remove(copy);
+                inLibrary.add(copy);
+                checkRep(copies);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isAvailable(BookCopy copy) {
+        return inLibrary.contains(copy);
+    }
+
+    @Override
+    public Set<BookCopy> allCopies(Book book) {
+        Set<BookCopy> copies = allBooks.get(book);
+        if (copies == null) { return Collections.emptySet(); }
+        synchronized (copies) {
+            return new HashSet<BookCopy>(copies);
+        }
+    }
+
+    @Override
+    public Set<BookCopy> availableCopies(Book book) {
+        Set<BookCopy> copies = allBooks.get(book);
+        if (copies == null) { return Collections.emptySet(); }
+        Set<BookCopy> available = new HashSet<BookCopy>();
+        synchronized (copies) {
+            for (BookCopy copy : copies)
+                if (inLibrary.contains(copy)) { available.add(copy); }
+        }
+        return available;
+    }
+
+    /**
+     * Same stronger spec as BigLibrary.find().
+     */
+    @Override
+    public List<Book> find(String query) {
+        query = query.toLowerCase();
+        Map<Book, Integer> scores;
+        catalog.readLock().lock();
+        try {
+            scores = engine.match(query, query.length() - 2);
+        } finally {
+            catalog.readLock().unlock();
+        }
+        List<Book> findResult = new ArrayList<Book>(scores.keySet());
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
+    }
+
+    @Override
+    public void lose(BookCopy copy) {
+        Book book = copy.getBook();
+        while (true) {
+            Set<BookCopy> copies = allBooks.get(book);
+            if (copies == null) { return; }
+            synchronized (copies) {
+                if (allBooks.get(book) != copies) { continue; }
+                if (!copies.remove(copy)) { return; }
+                inLibrary.remove(copy);
+                checkedOut.remove(copy);
+                if (copies.isEmpty()) { removeBook(book); }
+                checkRep(copies);
+                return;
+            }
+        }
+    }
+
+    // remove book, which has no copies left, from the catalog
+    private void removeBook(Book book) {
+        catalog.writeLock().lock();
+        try {
+            allBooks.remove(book);
+            engine.remove(book);
+        } finally {
+            catalog.writeLock().unlock();
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
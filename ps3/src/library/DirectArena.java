@@ -0,0 +1,58 @@
+package library;
+
+import java.nio.ByteBuffer;
+
+/**
+ * DirectArena is a growable block of memory outside the Java heap, in a direct ByteBuffer.  It grows
+ * by copying into a buffer twice the size; the old buffer's memory is released when it is collected.
+ * Whatever it holds, it costs the garbage collector one small object.
+ */
+class DirectArena {
+
+    private ByteBuffer buffer;
+
+    // rep invariant:
+    //    buffer is a direct, big-endian buffer whose position is 0 and limit is its capacity.
+    // abstraction function:
+    //    represents the bytes of buffer.
+    // safety from rep exposure:
+    //    buffer() exposes the buffer on purpose: callers read and write the arena through it with
+    //    absolute gets and puts, and must call buffer() again after ensureCapacity() since the buffer
+    //    may be replaced.
+
+    /**
+     * Make an arena of zeros.
+     * @param initialSize size in bytes; must be positive
+     */
+    public DirectArena(int initialSize) {
+        this.buffer = ByteBuffer.allocateDirect(initialSize);
+    }
+
+    /**
+     * @return the current buffer of the arena
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Make sure the arena has at least size bytes, doubling it as often as needed.  New bytes are zero.
+     * @param size required size in bytes; must be at most Integer.MAX_VALUE / 2
+     */
+    public void ensureCapacity(int size) {
+        int capacity = buffer.capacity();
+        if (size <= capacity) { return; }
+        while (capacity < size) { capacity *= 2; }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        grown.put(buffer.duplicate());
+        grown.clear();
+        buffer = grown;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
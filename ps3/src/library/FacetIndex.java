@@ -0,0 +1,155 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * FacetIndex is a mutable set of books with secondary indexes for filtering search results by Facets:
+ * books sorted by publication year and books by each of their authors.  Books are also indexed by title,
+ * so that exact title and author lookups take time proportional to the number of books found.  A search
+ * with facets starts from whichever of the author and year postings is smallest, and tests the other
+ * facets on each book in it, so its cost depends on the most selective facet rather than on the size of
+ * the collection.  Which books have an available copy is not indexed, here or elsewhere, so it never
+ * narrows a search; select() asks the library about each book it keeps.
+ */
+class FacetIndex {
+
+    private final NavigableMap<Integer, Set<Book>> byYear;
+    private final Map<String, Set<Book>> byAuthor;
+    private final Map<String, Set<Book>> byTitle;
+
+    // rep invariant:
+    //    book is in byYear.get(y) iff book is indexed and y == book.getYear().
+    //    book is in byAuthor.get(a) iff book is indexed and a is in book.getAuthors().
+    //    book is in byTitle.get(t) iff book is indexed and t equals book.getTitle().
+    //    no posting set is empty.
+    // abstraction function:
+    //    represents the set of indexed books, the union of the posting sets of byYear.
+    // safety from rep exposure:
+    //    all fields are private and final; select(), withTitle() and withAuthor() return fresh lists, and
+    //    narrowest() a fresh list or an unmodifiable view.
+
+    public FacetIndex() {
+        this.byYear = new TreeMap<Integer, Set<Book>>();
+        this.byAuthor = new HashMap<String, Set<Book>>();
+        this.byTitle = new HashMap<String, Set<Book>>();
+    }
+
+    /**
+     * Add a book to the index.  Has no effect if the book is already indexed.
+     * @param book book to add
+     */
+    public void add(Book book) {
+        posting(byYear, book.getYear()).add(book);
+        posting(byTitle, book.getTitle()).add(book);
+        for (String author : book.getAuthors()) { posting(byAuthor, author).add(book); }
+    }
+
+    private static <K> Set<Book> posting(Map<K, Set<Book>> index, K key) {
+        Set<Book> books = index.get(key);
+        if (books == null) {
+            books = new HashSet<Book>();
+            index.put(key, books);
+        }
+        return books;
+    }
+
+    /**
+     * Remove a book from the index.  Has no effect if the book is not indexed.
+     * @param book book to remove
+     */
+    public void remove(Book book) {
+        unpost(byYear, book.getYear(), book);
+        unpost(byTitle, book.getTitle(), book);
+        for (String author : book.getAuthors()) { unpost(byAuthor, author, book); }
+    }
+
+    private static <K> void unpost(Map<K, Set<Book>> index, K key, Book book) {
+        Set<Book> books = index.get(key);
+        if (books == null) { return; }
+        books.remove(book);
+        if (books.isEmpty()) { index.remove(key); }
+    }
+
+    /**
+     * @param title a title, matched exactly
+     * @return a fresh list of the indexed books with that title, in no particular order
+     */
+    public List<Book> withTitle(String title) {
+        Set<Book> books = byTitle.get(title);
+        return (books == null) ? new ArrayList<Book>() : new ArrayList<Book>(books);
+    }
+
+    /**
+     * @param author an author, matched exactly
+     * @return a fresh list of the indexed books of which author is one of the authors, in no particular order
+     */
+    public List<Book> withAuthor(String author) {
+        Set<Book> books = byAuthor.get(author);
+        return (books == null) ? new ArrayList<Book>() : new ArrayList<Book>(books);
+    }
+
+    /**
+     * Find the smallest of the postings of the author and year facets, so that a search can start from
+     * the books that might satisfy the facets instead of from the whole collection.
+     * @param facets restrictions on the books
+     * @return null if facets restrict neither author nor years; otherwise an unmodifiable or fresh
+     *    collection of indexed books, with no duplicates, that includes every indexed book satisfying
+     *    facets: the books by facets' author or the books in its year range, whichever are fewer
+     */
+    public Collection<Book> narrowest(Facets facets) {
+        Collection<Book> smallest = null;
+        if (facets.getAuthor() != null) {
+            Set<Book> byThisAuthor = byAuthor.get(facets.getAuthor());
+            if (byThisAuthor == null) { return new ArrayList<Book>(); }
+            smallest = Collections.unmodifiableSet(byThisAuthor);
+        }
+        if (facets.restrictsYears()) {
+            if (facets.getFromYear() > facets.getToYear()) { return new ArrayList<Book>(); }
+            Collection<Set<Book>> years = byYear.subMap(facets.getFromYear(), true, facets.getToYear(), true).values();
+            int size = 0;
+            for (Set<Book> year : years) { size += year.size(); }
+            if (smallest == null || size < smallest.size()) {
+                List<Book> inYears = new ArrayList<Book>(size);
+                for (Set<Book> year : years) { inYears.addAll(year); }
+                smallest = inYears;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Filter indexed books by facets.  Takes time proportional to the number of books given; pass
+     * narrowest(facets), or a subset of it, to avoid testing books that cannot satisfy facets.
+     * @param books indexed books, with no duplicates
+     * @param facets restrictions on the books
+     * @param hasAvailable test of whether the library has an available copy of an indexed book
+     * @return a fresh list of the books in books that satisfy facets, in no particular order
+     */
+    public List<Book> select(Collection<Book> books, Facets facets, Predicate<Book> hasAvailable) {
+        List<Book> selected = new ArrayList<Book>();
+        for (Book book : books) {
+            if (book.getYear() < facets.getFromYear() || book.getYear() > facets.getToYear()) { continue; }
+            if (facets.getAuthor() != null && !book.hasAuthor(facets.getAuthor())) { continue; }
+            if (facets.isAvailableOnly() && !hasAvailable.test(book)) { continue; }
+            selected.add(book);
+        }
+        return selected;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
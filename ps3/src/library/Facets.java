@@ -0,0 +1,133 @@
+package library;
+
+/**
+ * Facets is an immutable type representing restrictions on the books a search returns, beyond
+ * matching its text: a range of publication years, an author, and whether the book must have a copy
+ * available.  Facets.ANY restricts nothing; each restriction is added by a method returning new Facets.
+ */
+public class Facets {
+
+    /** facets that every book satisfies */
+    public static final Facets ANY = new Facets(0, Integer.MAX_VALUE, null, false);
+
+    private final int fromYear;
+    private final int toYear;
+    private final String author;
+    private final boolean availableOnly;
+
+    // Rep Invariant:
+    //  fromYear >= 0
+    // Abstraction Function:
+    //  Represents the restrictions that a book was published in a year in [fromYear, toYear] (empty if
+    //  fromYear > toYear), that author is one of its authors unless author is null, and that the library
+    //  has an available copy of it if availableOnly.
+    // Safety from rep exposure:
+    //  All fields are private and final, and of immutable types.
+
+    private Facets(int fromYear, int toYear, String author, boolean availableOnly) {
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        this.author = author;
+        this.availableOnly = availableOnly;
+        checkRep();
+    }
+
+    // assert the rep invariant
+    private void checkRep() {
+        assert this.fromYear >= 0;
+    }
+
+    /**
+     * @param fromYear earliest publication year, inclusive; must be nonnegative
+     * @param toYear latest publication year, inclusive
+     * @return facets with the same restrictions as these, except that books must be published from
+     *    fromYear to toYear
+     */
+    public Facets years(int fromYear, int toYear) {
+        return new Facets(fromYear, toYear, this.author, this.availableOnly);
+    }
+
+    /**
+     * @param author name of an author, matched exactly (case-sensitive)
+     * @return facets with the same restrictions as these, except that author must be one of the
+     *    authors of the books
+     */
+    public Facets author(String author) {
+        return new Facets(this.fromYear, this.toYear, author, this.availableOnly);
+    }
+
+    /**
+     * @return facets with the same restrictions as these, and also that the library must have an
+     *    available copy of the books
+     */
+    public Facets availableOnly() {
+        return new Facets(this.fromYear, this.toYear, this.author, true);
+    }
+
+    /**
+     * @return the earliest publication year allowed
+     */
+    public int getFromYear() {
+        return this.fromYear;
+    }
+
+    /**
+     * @return the latest publication year allowed
+     */
+    public int getToYear() {
+        return this.toYear;
+    }
+
+    /**
+     * @return the author that books must have, or null if any author is allowed
+     */
+    public String getAuthor() {
+        return this.author;
+    }
+
+    /**
+     * @return true iff books must have an available copy
+     */
+    public boolean isAvailableOnly() {
+        return this.availableOnly;
+    }
+
+    /**
+     * @return true iff some publication years are not allowed
+     */
+    boolean restrictsYears() {
+        return this.fromYear > 0 || this.toYear < Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return human-readable representation of these facets
+     */
+    @Override
+    public String toString() {
+        return "Years: " + this.fromYear + "-" + this.toYear + " Author: " + this.author
+                + " Available only: " + this.availableOnly;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof Facets)) { return false; }
+        Facets thatFacets = (Facets) that;
+        return this.fromYear == thatFacets.fromYear && this.toYear == thatFacets.toYear
+                && (this.author == null ? thatFacets.author == null : this.author.equals(thatFacets.author))
+                && this.availableOnly == thatFacets.availableOnly;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * this.fromYear + this.toYear;
+        hash = 31 * hash + (this.author == null ? 0 : this.author.hashCode());
+        return 31 * hash + (this.availableOnly ? 1 : 0);
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,265 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FederatedLibrary is a thread-safe Library made of several branch libraries, like a city system of
+ * branch libraries sharing one catalog.  New copies are spread over the branches in turn; each copy
+ * then belongs to the branch that bought it, and checkout, checkin, isAvailable and lose go to that
+ * branch only.  allCopies, availableCopies and find ask every branch at once and merge the answers.
+ *
+ * Each branch runs on its own single thread, which stands in for the transport to a remote branch
+ * server: the federation only talks to a branch by submitting calls to that thread and waiting for
+ * the result.  So branches need not be thread-safe, and operations on different branches run in
+ * parallel.
+ *
+ * If the branches are BigLibraries with their default find(), find() has the same stronger spec as
+ * BigLibrary.find() over the whole federation.
+ */
+public class FederatedLibrary implements Library {
+
+    /** number of branches made by the no-argument constructor */
+    public static final int DEFAULT_BRANCHES = 4;
+
+    private final List<Library> branches;
+    private final List<ExecutorService> executors;
+    private final Map<BookCopy, Integer> owners;
+    private final AtomicInteger nextBranch;
+
+    // rep invariant:
+    //    branches and executors have the same non-zero size; executors.get(i) is single-threaded.
+    //    owners maps every copy in branches.get(i) to i, and has no other keys.
+    // abstraction function:
+    //    represents the collection of all copies in all the branches, each available iff it is
+    //      available in its branch.
+    // safety from rep exposure:
+    //    all fields are private and final, and never returned; sets and lists returned are fresh.
+    // thread safety argument:
+    //    each branch is confined to its executor's thread: it is only ever called from tasks
+    //      submitted to that executor.
+    //    owners is a thread-safe map.  a copy is only added to owners after its branch has bought it,
+    //      and only removed after it is lost, so a routed call always reaches the copy's branch or
+    //      finds no owner (and is then a no-op, as for any copy not in the library).
+    //    nextBranch is an atomic counter.
+
+    /**
+     * Make an empty FederatedLibrary of DEFAULT_BRANCHES BigLibrary branches.
+     */
+    public FederatedLibrary() {
+        this(DEFAULT_BRANCHES);
+    }
+
+    /**
+     * Make an empty FederatedLibrary of BigLibrary branches.
+     * @param branchCount number of branches; must be positive
+     */
+    public FederatedLibrary(int branchCount) {
+        this(bigLibraries(branchCount));
+    }
+
+    private static List<Library> bigLibraries(int branchCount) {
+        List<Library> branches = new ArrayList<Library>();
+        for (int i = 0; i < branchCount; i++) { branches.add(new BigLibrary()); }
+        return branches;
+    }
+
+    /**
+     * Make a FederatedLibrary of the given branches.
+     * @param branches non-empty list of distinct, empty libraries; they become part of this library's
+     *    rep and must not be used by the client afterwards.
+     */
+    public FederatedLibrary(List<Library> branches) {
+        assert !branches.isEmpty();
+        this.branches = new ArrayList<Library>(branches);
+        this.executors = new ArrayList<ExecutorService>();
+        for (int i = 0; i < branches.size(); i++) {
+            executors.add(Executors.newSingleThreadExecutor(daemonThreads("branch-" + i)));
+        }
+        this.owners = new ConcurrentHashMap<BookCopy, Integer>();
+        this.nextBranch = new AtomicInteger();
+    }
+
+    // branch threads must not keep the JVM alive
+    private static ThreadFactory daemonThreads(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    // run call on branch i's thread and return its result
+    private <T> T call(int i, Callable<T> call) {
+        return await(submit(i, call));
+    }
+
+    private <T> Future<T> submit(int i, Callable<T> call) {
+        return executors.get(i).submit(call);
+    }
+
+    // wait for a branch call to finish; rethrow anything it threw
+    private static <T> T await(Future<T> result) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (InterruptedException e) {
+                    // the branch is already running the call, so wait for it to finish
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) { throw (RuntimeException) cause; }
+                    if (cause instanceof Error) { throw (Error) cause; }
+                    throw new RuntimeException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) { Thread.currentThread().interrupt(); }
+        }
+    }
+
+    @Override
+    public BookCopy buy(final Book book) {
+        final int i = Math.floorMod(nextBranch.getAndIncrement(), branches.size());
+        BookCopy copy = call(i, new Callable<BookCopy>() {
+            public BookCopy call() { return branches.get(i).buy(book); }
+        });
+        owners.put(copy, i);
+        return copy;
+    }
+
+    @Override
+    public void checkout(final BookCopy copy) {
+        final Integer i = owners.get(copy);
+        if (i == null) { return; }
+        call(i, new Callable<Void>() {
+            public Void call() {
+                branches.get(i).checkout(copy);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void checkin(final BookCopy copy) {
+        final Integer i = owners.get(copy);
+        if (i == null) { return; }
+        call(i, new Callable<Void>() {
+            public Void call() {
+                branches.get(i).checkin(copy);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public boolean isAvailable(final BookCopy copy) {
+        final Integer i = owners.get(copy);
+        if (i == null) { return false; }
+        return call(i, new Callable<Boolean>() {
+            public Boolean call() { return branches.get(i).isAvailable(copy); }
+        });
+    }
+
+    @Override
+    public Set<BookCopy> allCopies(final Book book) {
+        List<Future<Set<BookCopy>>> answers = new ArrayList<Future<Set<BookCopy>>>();
+        for (int i = 0; i < branches.size(); i++) {
+            final Library branch = branches.get(i);
+            answers.add(submit(i, new Callable<Set<BookCopy>>() {
+                public Set<BookCopy> call() { return branch.allCopies(book); }
+            }));
+        }
+        return union(answers);
+    }
+
+    @Override
+    public Set<BookCopy> availableCopies(final Book book) {
+        List<Future<Set<BookCopy>>> answers = new ArrayList<Future<Set<BookCopy>>>();
+        for (int i = 0; i < branches.size(); i++) {
+            final Library branch = branches.get(i);
+            answers.add(submit(i, new Callable<Set<BookCopy>>() {
+                public Set<BookCopy> call() { return branch.availableCopies(book); }
+            }));
+        }
+        return union(answers);
+    }
+
+    private static Set<BookCopy> union(List<Future<Set<BookCopy>>> answers) {
+        Set<BookCopy> copies = new HashSet<BookCopy>();
+        for (Future<Set<BookCopy>> answer : answers) { copies.addAll(await(answer)); }
+        return copies;
+    }
+
+    /**
+     * Asks every branch at once, then ranks the books found by any branch as BigLibrary.find() does:
+     * by the length of their longest common substring with the query, then newest first, then by
+     * title, then by authors.
+     */
+    @Override
+    public List<Book> find(final String query) {
+        List<Future<List<Book>>> answers = new ArrayList<Future<List<Book>>>();
+        for (int i = 0; i < branches.size(); i++) {
+            final Library branch = branches.get(i);
+            answers.add(submit(i, new Callable<List<Book>>() {
+                public List<Book> call() { return branch.find(query); }
+            }));
+        }
+        // branches rank on their own books only, so rescore the books they found on a common scale
+        String lowerQuery = query.toLowerCase();
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (Future<List<Book>> answer : answers) {
+            for (Book book : await(answer))
+                if (!scores.containsKey(book)) { scores.put(book, Substrings.longestCommon(lowerQuery, book.searchKey(), 0)); }
+        }
+        List<Book> findResult = new ArrayList<Book>(scores.keySet());
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
+    }
+
+    @Override
+    public void lose(final BookCopy copy) {
+        final Integer i = owners.get(copy);
+        if (i == null) { return; }
+        call(i, new Callable<Void>() {
+            public Void call() {
+                branches.get(i).lose(copy);
+                return null;
+            }
+        });
+        owners.remove(copy);
+    }
+
+    /**
+     * Stop the branch threads once they finish the calls already made.  This library must not be used
+     * afterwards.
+     */
+    public void shutdown() {
+        for (ExecutorService executor : executors) { executor.shutdown(); }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,95 @@
+package library;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FuzzyIndex is a mutable index of books by the words of their titles and authors that tolerates
+ * typos: a query word matches every indexed word within a given number of edits.
+ */
+class FuzzyIndex {
+
+    private final Map<String, Set<Book>> postings;
+    private final BKTree words;
+
+    // rep invariant:
+    //    book is in postings.get(w) iff book is indexed and w is in Tokens.of(book).  no posting set is empty.
+    //    words contains each key w of postings postings.get(w).size() times.
+    // abstraction function:
+    //    represents the set of indexed books, the union of the posting sets.
+    // safety from rep exposure:
+    //    all fields are private and final; match() returns a fresh map.
+
+    public FuzzyIndex() {
+        this.postings = new HashMap<String, Set<Book>>();
+        this.words = new BKTree();
+    }
+
+    /**
+     * Add a book to the index.  Has no effect if the book is already indexed.
+     * @param book book to add
+     */
+    public void add(Book book) {
+        for (String word : Tokens.of(book)) {
+            Set<Book> books = postings.get(word);
+            if (books == null) {
+                books = new HashSet<Book>();
+                postings.put(word, books);
+            }
+            if (books.add(book)) { words.add(word); }
+        }
+    }
+
+    /**
+     * Remove a book from the index.  Has no effect if the book is not indexed.
+     * @param book book to remove
+     */
+    public void remove(Book book) {
+        for (String word : Tokens.of(book)) {
+            Set<Book> books = postings.get(word);
+            if (books == null || !books.remove(book)) { continue; }
+            words.remove(word);
+            if (books.isEmpty()) { postings.remove(word); }
+        }
+    }
+
+    /**
+     * Score the indexed books against the words of a query, allowing typos.
+     * @param query search text
+     * @param maxEdits largest number of edits allowed between a query word and a word of a book;
+     *    must be nonnegative
+     * @return a fresh map from each indexed book with a word at most maxEdits from some word of query,
+     *    to its score: the sum over the distinct words of query of maxEdits + 1 - d, where d is the fewest
+     *    edits from that query word to a word of the book, counting only query words within maxEdits.
+     *    So every query word matched raises the score, and closer matches raise it more.
+     */
+    public Map<Book, Integer> match(String query, int maxEdits) {
+        assert maxEdits >= 0;
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (String queryWord : new LinkedHashSet<String>(Tokens.of(query))) {
+            Map<Book, Integer> best = new HashMap<Book, Integer>();
+            for (Map.Entry<String, Integer> found : words.match(queryWord, maxEdits).entrySet()) {
+                int quality = maxEdits + 1 - found.getValue();
+                for (Book book : postings.get(found.getKey())) {
+                    Integer old = best.get(book);
+                    if (old == null || old < quality) { best.put(book, quality); }
+                }
+            }
+            for (Map.Entry<Book, Integer> entry : best.entrySet()) {
+                Integer old = scores.get(entry.getKey());
+                scores.put(entry.getKey(), (old == null ? 0 : old) + entry.getValue());
+            }
+        }
+        return scores;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,212 @@
+package library;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Holdings is a mutable record of the copies of one book held by a library, and of which of them are
+ * available.  The copies are kept in a small array with the available ones first, and each copy
+ * records its index in the array (BookCopy.slot()), so that membership, checkout() and checkin() take
+ * constant time and the available copies can be iterated without looking at the checked-out ones.
+ * A copy can be held by at most one Holdings at a time.
+ */
+class Holdings {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private BookCopy[] copies;
+    private int size;
+    private int available;
+
+    // rep invariant:
+    //    copies[0 .. size) are distinct and non-null; 0 <= available <= size <= copies.length.
+    //    copies[i].slot() == i for each i in [0, size).
+    // abstraction function:
+    //    represents the copies copies[0 .. size), of which copies[0 .. available) are available
+    //      and the rest checked out.
+    // safety from rep exposure:
+    //    all fields are private; copies is never returned, only unmodifiable views that read it.
+    //    a copy's slot is package-private and only set here.
+
+    public Holdings() {
+        this.copies = new BookCopy[INITIAL_CAPACITY];
+    }
+
+    // assert the rep invariant
+    private void checkRep() {
+        assert 0 <= available && available <= size && size <= copies.length;
+    }
+
+    /**
+     * Add a new, available copy.
+     * @param copy copy to add, not held by any Holdings
+     */
+    public void add(BookCopy copy) {
+        assert copy.slot() == -1;
+        if (size == copies.length) { copies = Arrays.copyOf(copies, size * 2); }
+        place(copy, size++);
+        swap(size - 1, available++);
+        checkRep();
+    }
+
+    /**
+     * Remove a copy, available or not.  Has no effect if the copy is not held.
+     * @param copy copy to remove
+     */
+    public void remove(BookCopy copy) {
+        if (!contains(copy)) { return; }
+        if (copy.slot() < available) { swap(copy.slot(), --available); }
+        swap(copy.slot(), --size);
+        copies[size] = null;
+        copy.setSlot(-1);
+        checkRep();
+    }
+
+    /**
+     * Mark a held, available copy as checked out.
+     * @param copy copy to check out
+     */
+    public void checkout(BookCopy copy) {
+        assert isAvailable(copy);
+        swap(copy.slot(), --available);
+        checkRep();
+    }
+
+    /**
+     * Mark a held, checked-out copy as available.
+     * @param copy copy to check in
+     */
+    public void checkin(BookCopy copy) {
+        assert contains(copy) && !isAvailable(copy);
+        swap(copy.slot(), available++);
+        checkRep();
+    }
+
+    // put copy at index i of copies
+    private void place(BookCopy copy, int i) {
+        copies[i] = copy;
+        copy.setSlot(i);
+    }
+
+    // exchange the copies at indexes i and j of copies
+    private void swap(int i, int j) {
+        BookCopy copy = copies[i];
+        place(copies[j], i);
+        place(copy, j);
+    }
+
+    /**
+     * @param copy a copy
+     * @return true iff copy is held
+     */
+    public boolean contains(BookCopy copy) {
+        int slot = copy.slot();
+        return slot >= 0 && slot < size && copies[slot] == copy;
+    }
+
+    /**
+     * @param copy a copy
+     * @return true iff copy is held and available
+     */
+    public boolean isAvailable(BookCopy copy) {
+        int slot = copy.slot();
+        return slot >= 0 && slot < available && copies[slot] == copy;
+    }
+
+    /**
+     * Requires at least one copy to be held.
+     * @return the Book object of one of the copies held
+     */
+    public Book book() {
+        return copies[0].getBook();
+    }
+
+    /**
+     * @return true iff no copies are held
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of copies held
+     */
+    public int totalCount() {
+        return size;
+    }
+
+    /**
+     * @return number of available copies held
+     */
+    public int availableCount() {
+        return available;
+    }
+
+    /**
+     * @return unmodifiable live view of all copies held
+     */
+    public Set<BookCopy> allView() {
+        return new View(false);
+    }
+
+    /**
+     * @return unmodifiable live view of the available copies held; iterating it takes time proportional
+     *    to the number of available copies
+     */
+    public Set<BookCopy> availableView() {
+        return new View(true);
+    }
+
+    /**
+     * View is an unmodifiable live set of the copies held, or of the available ones: the copies in a
+     * prefix of the array.
+     */
+    private final class View extends AbstractSet<BookCopy> {
+
+        private final boolean availableOnly;
+
+        View(boolean availableOnly) {
+            this.availableOnly = availableOnly;
+        }
+
+        @Override
+        public int size() {
+            return availableOnly ? available : size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof BookCopy)) { return false; }
+            BookCopy copy = (BookCopy) o;
+            return availableOnly ? isAvailable(copy) : Holdings.this.contains(copy);
+        }
+
+        @Override
+        public Iterator<BookCopy> iterator() {
+            return new Iterator<BookCopy>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size();
+                }
+
+                @Override
+                public BookCopy next() {
+                    if (next >= size()) { throw new NoSuchElementException(); }
+                    return copies[next++];
+                }
+            };
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,68 @@
+package library;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * IndexedLibrary is a Library that keeps per-book indexes of its copies, so it can answer
+ * questions about the copies of a book without building or scanning sets of them.
+ */
+public interface IndexedLibrary extends Library {
+
+    /**
+     * Count the available copies of a book.
+     * @param book Book to count
+     * @return availableCopies(book).size(), in constant time
+     */
+    public int availableCount(Book book);
+
+    /**
+     * Count all the copies of a book.
+     * @param book Book to count
+     * @return allCopies(book).size(), in constant time
+     */
+    public int totalCount(Book book);
+
+    /**
+     * Get a read-only view of all the copies of a book, without copying them.
+     * @param book Book to find
+     * @return unmodifiable set with the same elements as allCopies(book).  The view is live: it
+     *    reflects every later mutation of this library (buy(), checkout(), checkin() and lose() of
+     *    copies of book) for as long as book has at least one copy in this library; once its last
+     *    copy is lost, the view is empty and stays so.  Callers that need a stable set should use
+     *    allCopies().
+     */
+    public Set<BookCopy> allCopiesView(Book book);
+
+    /**
+     * Get a read-only view of the available copies of a book, without copying them.
+     * @param book Book to find
+     * @return unmodifiable set with the same elements as availableCopies(book).  The view is live,
+     *    in the same way as allCopiesView().  Callers that need a stable set should use availableCopies().
+     */
+    public Set<BookCopy> availableCopiesView(Book book);
+
+    /**
+     * Find the books with a given title.
+     * @param title title to look up, matched exactly (case-sensitive)
+     * @return the books in this library whose title is title, newest first, then in alphabetical
+     *    order of authors.  Takes time proportional to the number of books returned, plus sorting them.
+     */
+    public List<Book> findByTitle(String title);
+
+    /**
+     * Find the books by a given author.
+     * @param author author to look up, matched exactly (case-sensitive)
+     * @return the books in this library of which author is one of the authors, newest first, then
+     *    in alphabetical order of title, then of authors.  Takes time proportional to the number of
+     *    books returned, plus sorting them.
+     */
+    public List<Book> findByAuthor(String author);
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
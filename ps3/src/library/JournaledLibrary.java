@@ -0,0 +1,520 @@
+package library;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * JournaledLibrary is a crash-safe, thread-safe BigLibrary.  Every buy, checkout, checkin and lose is
+ * written to an append-only log in a directory before it returns, so once it returns it survives a
+ * crash.  Operations running at the same time share one fsync of the log (group commit): while one
+ * thread forces a batch of records to disk, the others append theirs to the next batch.
+ *
+ * Every snapshotInterval operations the whole collection is written to a compacted snapshot and a new,
+ * empty log is started.  Opening a directory recovers the collection from its snapshot plus the log
+ * written after it; a record torn by a crash at the end of the log is discarded.
+ *
+ * find() has the same stronger spec as BigLibrary.find().  The condition of a copy is saved when it is
+ * checked in.  If an operation throws UncheckedIOException, it may or may not survive a crash, and every
+ * later operation throws too.
+ */
+public class JournaledLibrary implements Library, Closeable {
+
+    /** default number of logged operations between snapshots */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1 << 20;
+
+    private static final int SNAPSHOT_MAGIC = 0x4A4C4931;
+    private static final byte BUY = 1;
+    private static final byte CHECKOUT = 2;
+    private static final byte CHECKIN = 3;
+    private static final byte LOSE = 4;
+
+    private final File directory;
+    private final boolean temporary;
+    private final int snapshotInterval;
+    private final BigLibrary library;
+    private final Map<BookCopy, Long> serials;
+    private final Map<Long, BookCopy> copies;
+    private long nextSerial;
+
+    private int generation;
+    private FileChannel log;
+    private final ByteArrayOutputStream pending;
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    private int sinceSnapshot;
+    private IOException failure;
+
+    // rep invariant:
+    //    serials and copies are inverse maps between the copies in library and distinct serial
+    //      numbers less than nextSerial.
+    //    the snapshot file in directory (if any) names generation, and log is the channel of file
+    //      log.<generation>.  The snapshot plus the records in log followed by the records in pending
+    //      describe exactly the state of library.
+    //    records are numbered from 1 in the order they were appended: appended is the number of the
+    //      last one, and all records up to durable are on disk.  durable <= appended.
+    //    flushing iff some thread is writing and forcing a batch taken from pending.
+    //    sinceSnapshot is the number of records appended to log and pending.
+    //    the snapshot and log files are registered for deletion when the JVM exits iff temporary.
+    // abstraction function:
+    //    represents the collection of copies of library.
+    // safety from rep exposure:
+    //    all fields are private and never returned; copies returned are the BookCopy objects in
+    //    library, which the user may only observe.
+    // thread safety argument:
+    //    all fields are guarded by this object's lock, except that the thread that set flushing
+    //      writes and forces log without it.  No other thread touches log while flushing is set,
+    //      and snapshot() waits until it is clear.
+    //    each operation applies its change to library and appends its record under the lock, so
+    //      the order of records is the order of the changes.
+
+    /**
+     * Make an empty JournaledLibrary in a new temporary directory, which is deleted when the JVM exits.
+     * @throws UncheckedIOException if the directory or its files cannot be created
+     */
+    public JournaledLibrary() {
+        this(temporaryDirectory(), DEFAULT_SNAPSHOT_INTERVAL, true);
+    }
+
+    private static File temporaryDirectory() {
+        try {
+            File directory = Files.createTempDirectory("library").toFile();
+            directory.deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Open the JournaledLibrary stored in a directory, recovering it after a crash if need be, or
+     * create an empty one if the directory has none.  The files are kept when the JVM exits.
+     * @param directory existing directory holding the library's snapshot and log
+     * @param snapshotInterval number of operations between snapshots; must be positive
+     * @throws UncheckedIOException if the files cannot be read or written
+     */
+    public JournaledLibrary(File directory, int snapshotInterval) {
+        this(directory, snapshotInterval, false);
+    }
+
+    // open the library in directory; if temporary, its files are deleted when the JVM exits
+    private JournaledLibrary(File directory, int snapshotInterval, boolean temporary) {
+        assert snapshotInterval > 0;
+        this.directory = directory;
+        this.temporary = temporary;
+        this.snapshotInterval = snapshotInterval;
+        this.library = new BigLibrary();
+        this.serials = new HashMap<BookCopy, Long>();
+        this.copies = new HashMap<Long, BookCopy>();
+        this.pending = new ByteArrayOutputStream();
+        try {
+            readSnapshot();
+            replayLog();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checkRep();
+    }
+
+    // assert the cheap parts of the rep invariant
+    private void checkRep() {
+        assert serials.size() == copies.size();
+        assert durable <= appended;
+    }
+
+    @Override
+    public BookCopy buy(Book book) {
+        long record;
+        BookCopy copy;
+        synchronized (this) {
+            checkFailure();
+            long serial = nextSerial;
+            byte[] payload = encode(BUY, serial, book, null);
+            copy = library.buy(book);
+            nextSerial++;
+            serials.put(copy, serial);
+            copies.put(serial, copy);
+            record = append(payload);
+        }
+        commit(record);
+        return copy;
+    }
+
+    @Override
+    public void checkout(BookCopy copy) {
+        long record;
+        synchronized (this) {
+            checkFailure();
+            Long serial = serials.get(copy);
+            if (serial == null) { return; }
+            byte[] payload = encode(CHECKOUT, serial, null, null);
+            library.checkout(copy);
+            record = append(payload);
+        }
+        commit(record);
+    }
+
+    @Override
+    public void checkin(BookCopy copy) {
+        long record;
+        synchronized (this) {
+            checkFailure();
+            Long serial = serials.get(copy);
+            if (serial == null) { return; }
+            byte[] payload = encode(CHECKIN, serial, null, copy.getCondition());
+            library.checkin(copy);
+            record = append(payload);
+        }
+        commit(record);
+    }
+
+    @Override
+    public synchronized boolean isAvailable(BookCopy copy) {
+        return library.isAvailable(copy);
+    }
+
+    @Override
+    public synchronized Set<BookCopy> allCopies(Book book) {
+        return library.allCopies(book);
+    }
+
+    @Override
+    public synchronized Set<BookCopy> availableCopies(Book book) {
+        return library.availableCopies(book);
+    }
+
+    /**
+     * Same stronger spec as BigLibrary.find().
+     */
+    @Override
+    public synchronized List<Book> find(String query) {
+        return library.find(query);
+    }
+
+    @Override
+    public void lose(BookCopy copy) {
+        long record;
+        synchronized (this) {
+            checkFailure();
+            Long serial = serials.get(copy);
+            if (serial == null) { return; }
+            byte[] payload = encode(LOSE, serial, null, null);
+            serials.remove(copy);
+            copies.remove(serial);
+            library.lose(copy);
+            record = append(payload);
+        }
+        commit(record);
+    }
+
+    /**
+     * Write a compacted snapshot of the whole collection now and start a new, empty log.
+     * Blocks all other operations while the snapshot is written.
+     * @throws UncheckedIOException if the snapshot cannot be written
+     */
+    public synchronized void snapshot() {
+        checkFailure();
+        while (flushing) { awaitUninterruptibly(); }
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            failure = e;
+            notifyAll();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close the log.  Every operation that has returned is already durable.
+     * This library must not be used afterwards.
+     * @throws IOException if the log cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        while (flushing) { awaitUninterruptibly(); }
+        log.close();
+    }
+
+    private void checkFailure() {
+        if (failure != null) { throw new UncheckedIOException(failure); }
+    }
+
+    private void awaitUninterruptibly() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // append a record to the next batch; return its number.  Caller must hold the lock.
+    private long append(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        byte[] header = ByteBuffer.allocate(8).putInt(payload.length).putInt((int) crc.getValue()).array();
+        pending.write(header, 0, header.length);
+        pending.write(payload, 0, payload.length);
+        sinceSnapshot++;
+        return ++appended;
+    }
+
+    // return once record is on disk.  The first thread to find no batch being written becomes the
+    // leader: it takes every record appended so far, writes and forces them without holding the
+    // lock, then wakes the others, whose records it may have carried.
+    private void commit(long record) {
+        byte[] batch;
+        long upTo;
+        synchronized (this) {
+            while (durable < record && flushing && failure == null) { awaitUninterruptibly(); }
+            checkFailure();
+            if (durable >= record) { return; }
+            flushing = true;
+            batch = pending.toByteArray();
+            pending.reset();
+            upTo = appended;
+        }
+        IOException error = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch);
+            while (buffer.hasRemaining()) { log.write(buffer); }
+            log.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (this) {
+            flushing = false;
+            if (error == null) { durable = Math.max(durable, upTo); }
+            else { failure = error; }
+            if (error == null && sinceSnapshot >= snapshotInterval) {
+                try {
+                    writeSnapshot();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            notifyAll();
+            checkFailure();
+            checkRep();
+        }
+    }
+
+    // write the state of library to a new snapshot and switch to a new, empty log.  Records still
+    // in pending are covered by the snapshot, so they become durable with it.  Caller must hold the
+    // lock, and flushing must be clear.
+    private void writeSnapshot() throws IOException {
+        int next = generation + 1;
+        File newLog = logFile(next);
+        FileChannel nextLog = new RandomAccessFile(newLog, "rw").getChannel();
+        nextLog.truncate(0);
+        if (temporary) { newLog.deleteOnExit(); }
+
+        Map<Book, List<BookCopy>> byBook = new LinkedHashMap<Book, List<BookCopy>>();
+        for (BookCopy copy : copies.values()) {
+            List<BookCopy> ofBook = byBook.get(copy.getBook());
+            if (ofBook == null) {
+                ofBook = new ArrayList<BookCopy>();
+                byBook.put(copy.getBook(), ofBook);
+            }
+            ofBook.add(copy);
+        }
+        File partial = new File(directory, "snapshot.tmp");
+        FileOutputStream file = new FileOutputStream(partial);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(next);
+            out.writeLong(nextSerial);
+            out.writeInt(byBook.size());
+            for (Map.Entry<Book, List<BookCopy>> entry : byBook.entrySet()) {
+                out.write(BookRecords.encode(entry.getKey()));
+                out.writeInt(entry.getValue().size());
+                for (BookCopy copy : entry.getValue()) {
+                    out.writeLong(serials.get(copy));
+                    out.writeBoolean(library.isAvailable(copy));
+                    out.writeBoolean(copy.getCondition() == BookCopy.Condition.DAMAGED);
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        } finally {
+            file.close();
+        }
+        File snapshot = snapshotFile();
+        Files.move(partial.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        if (temporary) { snapshot.deleteOnExit(); }
+        syncDirectory();
+
+        // the new snapshot is in place, so the old log is no longer needed
+        log.close();
+        logFile(generation).delete();
+        log = nextLog;
+        generation = next;
+        pending.reset();
+        durable = appended;
+        sinceSnapshot = 0;
+    }
+
+    // make the rename of the snapshot durable before the old log is deleted, where the platform allows it
+    private void syncDirectory() {
+        try {
+            FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // some platforms cannot open or force a directory; the rename is then as durable as they make it
+        }
+    }
+
+    private File snapshotFile() {
+        return new File(directory, "snapshot");
+    }
+
+    private File logFile(int generation) {
+        return new File(directory, "log." + generation);
+    }
+
+    // load the snapshot, if there is one, into library
+    private void readSnapshot() throws IOException {
+        File snapshot = snapshotFile();
+        if (!snapshot.exists()) { return; }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot.toPath())));
+        try {
+            if (in.readInt() != SNAPSHOT_MAGIC) { throw new IOException(snapshot + " is not a JournaledLibrary snapshot"); }
+            generation = in.readInt();
+            nextSerial = in.readLong();
+            int bookCount = in.readInt();
+            for (int b = 0; b < bookCount; b++) {
+                Book book = readBook(in);
+                int copyCount = in.readInt();
+                for (int c = 0; c < copyCount; c++) {
+                    long serial = in.readLong();
+                    BookCopy copy = recoverCopy(book, serial);
+                    if (!in.readBoolean()) { library.checkout(copy); }
+                    if (in.readBoolean()) { copy.setCondition(BookCopy.Condition.DAMAGED); }
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    // apply the complete records of the current log to library, and cut off a torn record at its end
+    private void replayLog() throws IOException {
+        File file = logFile(generation);
+        if (temporary) { file.deleteOnExit(); }
+        log = new RandomAccessFile(file, "rw").getChannel();
+        ByteBuffer bytes = ByteBuffer.allocate((int) log.size());
+        while (bytes.hasRemaining() && log.read(bytes) >= 0) { }
+        bytes.flip();
+        long valid = 0;
+        while (bytes.remaining() >= 8) {
+            int length = bytes.getInt();
+            int checksum = bytes.getInt();
+            if (length < 0 || length > bytes.remaining()) { break; }
+            byte[] payload = new byte[length];
+            bytes.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) { break; }
+            replay(payload);
+            valid = bytes.position();
+        }
+        log.truncate(valid);
+        log.position(valid);
+    }
+
+    private void replay(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        long serial = in.readLong();
+        sinceSnapshot++;
+        if (op == BUY) {
+            recoverCopy(readBook(in), serial);
+            nextSerial = Math.max(nextSerial, serial + 1);
+            return;
+        }
+        BookCopy copy = copies.get(serial);
+        if (copy == null) { throw new IOException("log refers to unknown copy " + serial); }
+        if (op == CHECKOUT) { library.checkout(copy); }
+        else if (op == CHECKIN) {
+            copy.setCondition(in.readBoolean() ? BookCopy.Condition.DAMAGED : BookCopy.Condition.GOOD);
+            library.checkin(copy);
+        } else if (op == LOSE) {
+            serials.remove(copy);
+            copies.remove(serial);
+            library.lose(copy);
+        } else {
+            throw new IOException("unknown log record " + op);
+        }
+    }
+
+    private BookCopy recoverCopy(Book book, long serial) {
+        BookCopy copy = library.buy(book);
+        serials.put(copy, serial);
+        copies.put(serial, copy);
+        return copy;
+    }
+
+    // return the payload of a log record; the book, if any, is a record made by BookRecords, whose
+    // strings are length-prefixed UTF-8 of any length, so encoding cannot fail
+    private static byte[] encode(byte op, long serial, Book book, BookCopy.Condition condition) {
+        byte[] bookRecord = (book == null) ? new byte[0] : BookRecords.encode(book);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + bookRecord.length + (condition == null ? 0 : 1));
+        payload.put(op).putLong(serial).put(bookRecord);
+        if (condition != null) { payload.put((byte) (condition == BookCopy.Condition.DAMAGED ? 1 : 0)); }
+        return payload.array();
+    }
+
+    // read a book written as a record made by BookRecords
+    private static Book readBook(DataInputStream in) throws IOException {
+        int year = in.readInt();
+        String title = readString(in);
+        int authorCount = in.readInt();
+        if (authorCount < 0) { throw new EOFException("corrupt book record"); }
+        List<String> authors = new ArrayList<String>(authorCount);
+        for (int i = 0; i < authorCount; i++) { authors.add(readString(in)); }
+        return new Book(title, authors, year);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) { throw new EOFException("corrupt book record"); }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
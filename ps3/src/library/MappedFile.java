@@ -0,0 +1,84 @@
+package library;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * MappedFile is a file mapped read-write into memory, which grows by remapping when more room is needed.
+ * Writes to the buffer are writes to the file's pages; force() makes them durable.
+ */
+class MappedFile implements Closeable {
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    // rep invariant:
+    //    buffer maps the first buffer.capacity() bytes of channel, which is the channel of file.
+    // abstraction function:
+    //    represents the bytes of the file.
+    // safety from rep exposure:
+    //    buffer() exposes the mapping on purpose: callers read and write the file through it, and
+    //    must call buffer() again after ensureCapacity() since the mapping may be replaced.
+
+    /**
+     * Open or create a file and map it.
+     * @param path file to map
+     * @param initialSize minimum size in bytes of the mapping; the file is extended with zeros if shorter
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedFile(File path, int initialSize) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+        this.channel = file.getChannel();
+        map((int) Math.max(initialSize, channel.size()));
+    }
+
+    private void map(int size) throws IOException {
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * @return the current mapping of the file
+     */
+    public MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Make sure at least size bytes are mapped, doubling the mapping as often as needed.
+     * @param size required size in bytes; must be at most Integer.MAX_VALUE / 2
+     * @throws IOException if the file cannot be extended or remapped
+     */
+    public void ensureCapacity(int size) throws IOException {
+        int capacity = buffer.capacity();
+        if (size <= capacity) { return; }
+        while (capacity < size) { capacity *= 2; }
+        buffer.force();
+        map(capacity);
+    }
+
+    /**
+     * Write all changes to the mapping through to the storage device.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+        file.close();
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,406 @@
+package library;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MappedLibrary is a Library whose books, copies and availability are stored in a compact binary
+ * format in memory-mapped files in a directory, so the collection survives a restart.  Opening an
+ * existing directory only maps the files, so it takes the same time whatever the size of the collection.
+ * Every operation is a few writes to mapped pages; call sync() (or close()) to force them to disk.
+ *
+ * find() has the same stronger spec as BigLibrary.find().  Its search index is kept in memory: it is
+ * built from the files by the first find() after opening, and kept up to date afterwards.
+ *
+ * BookCopy objects are handles onto the copy records: the same handle is returned for a copy for as
+ * long as this MappedLibrary is open.  The condition of a copy is saved when it is checked in.
+ *
+ * Files (all integers big-endian):
+ *    books.idx    header, then one BOOK_RECORD-byte record per book: data offset, hash code, first copy,
+ *                 number of copies, number of available copies
+ *    books.dat    per book, a record made by BookRecords: year, title, number of authors, authors
+ *    books.hash   open-addressing hash table of book id + 1, probed linearly from the book's hash code
+ *    copies.dat   one COPY_RECORD-byte record per copy: book id, next copy of the same book, flags
+ */
+public class MappedLibrary implements Library, Closeable {
+
+    private static final int MAGIC = 0x4C494231;
+    private static final int HEADER = 32;
+    private static final int H_MAGIC = 0;
+    private static final int H_BOOKS = 4;
+    private static final int H_COPIES = 8;
+    private static final int H_DATA_END = 12;
+    private static final int H_HASH_CAPACITY = 16;
+
+    private static final int BOOK_RECORD = 20;
+    private static final int B_OFFSET = 0;
+    private static final int B_HASH = 4;
+    private static final int B_FIRST = 8;
+    private static final int B_TOTAL = 12;
+    private static final int B_AVAILABLE = 16;
+
+    private static final int COPY_RECORD = 12;
+    private static final int C_BOOK = 0;
+    private static final int C_NEXT = 4;
+    private static final int C_FLAGS = 8;
+    private static final int LIVE = 1;
+    private static final int AVAILABLE = 2;
+    private static final int DAMAGED = 4;
+
+    private static final int NONE = -1;
+    private static final int INITIAL_SIZE = 4096;
+    private static final int INITIAL_HASH_CAPACITY = 1024;
+
+    private final MappedFile index;
+    private final MappedFile data;
+    private final MappedFile hash;
+    private final MappedFile copies;
+    private final Map<Integer, BookCopy> handles;
+    private MatchEngine engine;
+
+    // rep invariant:
+    //    the header of index holds MAGIC, the number of books and copies ever recorded, the end of the
+    //      used part of data, and the capacity of hash, a power of two at least twice the number of books.
+    //    each book id in [0, books) has a record in index whose data is at its offset in data, whose hash
+    //      is the Book's hashCode(), and whose id + 1 is in hash within the probe run of that hash code.
+    //    the copies of a book with the LIVE flag are exactly those in the chain from its first copy
+    //      through next; its total and available counts are the numbers of them with LIVE and with
+    //      AVAILABLE set.  a copy without LIVE has no other flags.
+    //    handles maps copy ids to the BookCopy bound to this library with that id, for live copies only.
+    //    engine is null, or contains exactly the books with a non-zero total.
+    // abstraction function:
+    //    represents the collection of live copies in copies.dat, where a copy is available iff its
+    //      AVAILABLE flag is set, and checked out otherwise.
+    // safety from rep exposure:
+    //    all fields are private and final except engine, which is never returned.  Sets and lists
+    //    returned to the user are fresh.  BookCopy handles are bound to this library with
+    //    package-private fields that only this class sets.
+
+    /**
+     * Make an empty MappedLibrary in a new temporary directory, which is deleted when the JVM exits.
+     * @throws UncheckedIOException if the directory or its files cannot be created
+     */
+    public MappedLibrary() {
+        this(temporaryDirectory(), true);
+    }
+
+    private static File temporaryDirectory() {
+        try {
+            File directory = Files.createTempDirectory("library").toFile();
+            directory.deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Open the MappedLibrary stored in a directory, creating an empty one if the directory has none.
+     * The files are kept when the JVM exits.
+     * @param directory existing directory holding the library's files
+     * @throws UncheckedIOException if the files cannot be opened, or hold something other than a library
+     */
+    public MappedLibrary(File directory) {
+        this(directory, false);
+    }
+
+    // open the library in directory; if temporary, its files are deleted when the JVM exits
+    private MappedLibrary(File directory, boolean temporary) {
+        try {
+            this.index = new MappedFile(file(directory, "books.idx", temporary), INITIAL_SIZE);
+            this.data = new MappedFile(file(directory, "books.dat", temporary), INITIAL_SIZE);
+            this.hash = new MappedFile(file(directory, "books.hash", temporary), INITIAL_HASH_CAPACITY * 4);
+            this.copies = new MappedFile(file(directory, "copies.dat", temporary), INITIAL_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.handles = new HashMap<Integer, BookCopy>();
+        ByteBuffer header = index.buffer();
+        if (header.getInt(H_MAGIC) == 0) {
+            header.putInt(H_MAGIC, MAGIC);
+            header.putInt(H_HASH_CAPACITY, INITIAL_HASH_CAPACITY);
+        }
+        if (header.getInt(H_MAGIC) != MAGIC) {
+            throw new UncheckedIOException(new IOException(directory + " does not hold a MappedLibrary"));
+        }
+        checkRep();
+    }
+
+    private static File file(File directory, String name, boolean temporary) {
+        File file = new File(directory, name);
+        if (temporary) { file.deleteOnExit(); }
+        return file;
+    }
+
+    // assert the cheap parts of the rep invariant
+    private void checkRep() {
+        assert index.buffer().getInt(H_MAGIC) == MAGIC;
+        assert 2 * bookCount() <= hashCapacity();
+        assert Integer.bitCount(hashCapacity()) == 1;
+    }
+
+    @Override
+    public BookCopy buy(Book book) {
+        try {
+            int bookId = lookup(book);
+            if (bookId == NONE) { bookId = addBook(book); }
+            int copyId = header(H_COPIES);
+            copies.ensureCapacity((copyId + 1) * COPY_RECORD);
+            ByteBuffer copyRecords = copies.buffer();
+            copyRecords.putInt(copyId * COPY_RECORD + C_BOOK, bookId);
+            copyRecords.putInt(copyId * COPY_RECORD + C_NEXT, bookField(bookId, B_FIRST));
+            copyRecords.putInt(copyId * COPY_RECORD + C_FLAGS, LIVE | AVAILABLE);
+            setHeader(H_COPIES, copyId + 1);
+            setBookField(bookId, B_FIRST, copyId);
+            setBookField(bookId, B_TOTAL, bookField(bookId, B_TOTAL) + 1);
+            setBookField(bookId, B_AVAILABLE, bookField(bookId, B_AVAILABLE) + 1);
+            if (engine != null && bookField(bookId, B_TOTAL) == 1) { engine.add(book); }
+            BookCopy copy = new BookCopy(book);
+            copy.bind(this, copyId);
+            handles.put(copyId, copy);
+            checkRep();
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void checkout(BookCopy copy) {
+        if (!owns(copy)) { return; }
+        int flags = flags(copy.id());
+        if ((flags & AVAILABLE) == 0) { return; }
+        setFlags(copy.id(), flags & ~AVAILABLE);
+        int bookId = copies.buffer().getInt(copy.id() * COPY_RECORD + C_BOOK);
+        setBookField(bookId, B_AVAILABLE, bookField(bookId, B_AVAILABLE) - 1);
+        checkRep();
+    }
+
+    @Override
+    public void checkin(BookCopy copy) {
+        if (!owns(copy)) { return; }
+        int flags = flags(copy.id());
+        if ((flags & AVAILABLE) != 0) { return; }
+        flags |= AVAILABLE;
+        if (copy.getCondition() == BookCopy.Condition.DAMAGED) { flags |= DAMAGED; }
+        else { flags &= ~DAMAGED; }
+        setFlags(copy.id(), flags);
+        int bookId = copies.buffer().getInt(copy.id() * COPY_RECORD + C_BOOK);
+        setBookField(bookId, B_AVAILABLE, bookField(bookId, B_AVAILABLE) + 1);
+        checkRep();
+    }
+
+    @Override
+    public boolean isAvailable(BookCopy copy) {
+        return owns(copy) && (flags(copy.id()) & AVAILABLE) != 0;
+    }
+
+    @Override
+    public Set<BookCopy> allCopies(Book book) {
+        return copiesOf(book, LIVE);
+    }
+
+    @Override
+    public Set<BookCopy> availableCopies(Book book) {
+        return copiesOf(book, AVAILABLE);
+    }
+
+    // return a fresh set of the copies of book that have all the given flags
+    private Set<BookCopy> copiesOf(Book book, int required) {
+        int bookId = lookup(book);
+        if (bookId == NONE) { return Collections.emptySet(); }
+        Set<BookCopy> found = new HashSet<BookCopy>();
+        for (int copyId = bookField(bookId, B_FIRST); copyId != NONE; copyId = next(copyId)) {
+            if ((flags(copyId) & required) == required) { found.add(handle(copyId, book)); }
+        }
+        return found;
+    }
+
+    // return the handle of a live copy of book, making it if this is the first time it is needed
+    private BookCopy handle(int copyId, Book book) {
+        BookCopy copy = handles.get(copyId);
+        if (copy == null) {
+            copy = new BookCopy(book);
+            copy.bind(this, copyId);
+            if ((flags(copyId) & DAMAGED) != 0) { copy.setCondition(BookCopy.Condition.DAMAGED); }
+            handles.put(copyId, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Same stronger spec as BigLibrary.find().
+     */
+    @Override
+    public List<Book> find(String query) {
+        if (engine == null) { buildEngine(); }
+        query = query.toLowerCase();
+        Map<Book, Integer> scores = engine.match(query, query.length() - 2);
+        List<Book> findResult = new ArrayList<Book>(scores.keySet());
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
+    }
+
+    // build the search index from the books that have copies
+    private void buildEngine() {
+        MatchEngine built = new SuffixAutomatonEngine();
+        for (int bookId = 0; bookId < bookCount(); bookId++)
+            if (bookField(bookId, B_TOTAL) > 0) { built.add(readBook(bookId)); }
+        engine = built;
+    }
+
+    @Override
+    public void lose(BookCopy copy) {
+        if (!owns(copy)) { return; }
+        int copyId = copy.id();
+        int flags = flags(copyId);
+        int bookId = copies.buffer().getInt(copyId * COPY_RECORD + C_BOOK);
+        // unlink the copy from its book's chain
+        int previous = NONE;
+        for (int c = bookField(bookId, B_FIRST); c != copyId; c = next(c)) { previous = c; }
+        if (previous == NONE) { setBookField(bookId, B_FIRST, next(copyId)); }
+        else { copies.buffer().putInt(previous * COPY_RECORD + C_NEXT, next(copyId)); }
+        setFlags(copyId, 0);
+        setBookField(bookId, B_TOTAL, bookField(bookId, B_TOTAL) - 1);
+        if ((flags & AVAILABLE) != 0) { setBookField(bookId, B_AVAILABLE, bookField(bookId, B_AVAILABLE) - 1); }
+        if (engine != null && bookField(bookId, B_TOTAL) == 0) { engine.remove(copy.getBook()); }
+        handles.remove(copyId);
+        copy.unbind();
+        checkRep();
+    }
+
+    /**
+     * Force all changes made so far to the storage device.
+     */
+    public void sync() {
+        index.force();
+        data.force();
+        hash.force();
+        copies.force();
+    }
+
+    /**
+     * Force all changes to the storage device and close the files.  This library must not be used afterwards.
+     * @throws IOException if the files cannot be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        index.close();
+        data.close();
+        hash.close();
+        copies.close();
+    }
+
+    private boolean owns(BookCopy copy) {
+        return copy.owner() == this;
+    }
+
+    private int header(int field) {
+        return index.buffer().getInt(field);
+    }
+
+    private void setHeader(int field, int value) {
+        index.buffer().putInt(field, value);
+    }
+
+    private int bookCount() {
+        return header(H_BOOKS);
+    }
+
+    private int hashCapacity() {
+        return header(H_HASH_CAPACITY);
+    }
+
+    private int bookField(int bookId, int field) {
+        return index.buffer().getInt(HEADER + bookId * BOOK_RECORD + field);
+    }
+
+    private void setBookField(int bookId, int field, int value) {
+        index.buffer().putInt(HEADER + bookId * BOOK_RECORD + field, value);
+    }
+
+    private int flags(int copyId) {
+        return copies.buffer().getInt(copyId * COPY_RECORD + C_FLAGS);
+    }
+
+    private void setFlags(int copyId, int flags) {
+        copies.buffer().putInt(copyId * COPY_RECORD + C_FLAGS, flags);
+    }
+
+    private int next(int copyId) {
+        return copies.buffer().getInt(copyId * COPY_RECORD + C_NEXT);
+    }
+
+    // return the id of book, or NONE if it has never been recorded
+    private int lookup(Book book) {
+        int mask = hashCapacity() - 1;
+        ByteBuffer slots = hash.buffer();
+        for (int slot = book.hashCode() & mask; ; slot = (slot + 1) & mask) {
+            int bookId = slots.getInt(slot * 4) - 1;
+            if (bookId == NONE) { return NONE; }
+            if (bookField(bookId, B_HASH) == book.hashCode() && readBook(bookId).equals(book)) { return bookId; }
+        }
+    }
+
+    // record a new book with no copies; return its id
+    private int addBook(Book book) throws IOException {
+        int bookId = bookCount();
+        byte[] record = BookRecords.encode(book);
+        int offset = header(H_DATA_END);
+        data.ensureCapacity(offset + record.length);
+        ByteBuffer bookData = data.buffer().duplicate();
+        bookData.position(offset);
+        bookData.put(record);
+        index.ensureCapacity(HEADER + (bookId + 1) * BOOK_RECORD);
+        setBookField(bookId, B_OFFSET, offset);
+        setBookField(bookId, B_HASH, book.hashCode());
+        setBookField(bookId, B_FIRST, NONE);
+        setBookField(bookId, B_TOTAL, 0);
+        setBookField(bookId, B_AVAILABLE, 0);
+        setHeader(H_DATA_END, offset + record.length);
+        setHeader(H_BOOKS, bookId + 1);
+        if (2 * (bookId + 1) > hashCapacity()) { rehash(hashCapacity() * 2); }
+        else { insertHash(bookId, hashCapacity()); }
+        return bookId;
+    }
+
+    // grow the hash table to capacity slots and reinsert every book
+    private void rehash(int capacity) throws IOException {
+        hash.ensureCapacity(capacity * 4);
+        ByteBuffer slots = hash.buffer();
+        for (int slot = 0; slot < capacity; slot++) { slots.putInt(slot * 4, 0); }
+        setHeader(H_HASH_CAPACITY, capacity);
+        for (int bookId = 0; bookId < bookCount(); bookId++) { insertHash(bookId, capacity); }
+    }
+
+    private void insertHash(int bookId, int capacity) {
+        int mask = capacity - 1;
+        ByteBuffer slots = hash.buffer();
+        int slot = bookField(bookId, B_HASH) & mask;
+        while (slots.getInt(slot * 4) != 0) { slot = (slot + 1) & mask; }
+        slots.putInt(slot * 4, bookId + 1);
+    }
+
+    // decode the book with the given id from data
+    private Book readBook(int bookId) {
+        return BookRecords.decode(data.buffer(), bookField(bookId, B_OFFSET));
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
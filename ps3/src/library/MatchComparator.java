@@ -0,0 +1,48 @@
+package library;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/*
+ * Comparator that orders books by a map of match scores.  The longest substring match gets the
+ * highest priority.  Matches of the same length give precedence to newer books.  All else being
+ * equal the books are sorted in alphabetical order of title, then of authors, so that distinct
+ * books never compare equal.
+ */
+class MatchComparator implements Comparator<Book> {
+
+    /** orders books newest first, then in alphabetical order of title, then of authors */
+    static final Comparator<Book> NEWEST_FIRST = new Comparator<Book>() {
+        @Override
+        public int compare(Book a, Book b) {
+            if (a.getYear() < b.getYear()) { return 1; }
+            else if (a.getYear() > b.getYear()) { return -1; }
+            int byTitle = a.getTitle().compareTo(b.getTitle());
+            if (byTitle != 0) { return byTitle; }
+            return a.compareAuthors(b);
+        }
+    };
+
+    private final Map<Book, Integer> scores;
+
+    /**
+     * @param scores match score of every book that will be compared
+     */
+    public MatchComparator(Map<Book, Integer> scores) { this.scores = scores; }
+
+    @Override
+    public int compare(Book a, Book b) {
+        int alen = scores.get(a);
+        int blen = scores.get(b);
+        if (alen < blen) { return 1; }
+        else if (alen > blen) { return -1; }
+        else { return NEWEST_FIRST.compare(a, b); }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,49 @@
+package library;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * MatchEngine is a mutable index over a set of books that answers longest-common-substring queries:
+ * for a query string, how long is the longest substring it shares with each book's searchable text
+ * (the lower-cased title, a space, then the authors).  BigLibrary uses a MatchEngine to rank find().
+ */
+public interface MatchEngine {
+
+    /**
+     * Add a book to the engine.  Has no effect if the book is already present.
+     * @param book book to add
+     */
+    public void add(Book book);
+
+    /**
+     * Add many books to the engine; same effect as calling add() on each in turn.  Engines that can
+     * index books faster in bulk, or in parallel, override this.
+     * @param books books to add
+     */
+    public default void addAll(Collection<Book> books) {
+        for (Book book : books) { add(book); }
+    }
+
+    /**
+     * Remove a book from the engine.  Has no effect if the book is not present.
+     * @param book book to remove
+     */
+    public void remove(Book book);
+
+    /**
+     * Score every book in the engine against a query.
+     * @param query lower-cased search text
+     * @param minLength minimum length of common substring of interest
+     * @return a fresh map from each book in the engine whose longest common substring with query
+     *    has length at least minLength, to that length.  If minLength <= 0 every book is included.
+     */
+    public Map<Book, Integer> match(String query, int minLength);
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,166 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * NgramIndex is a mutable inverted index from the character n-grams of each book's searchable text
+ * (title and authors, lower-cased) to the books containing them.  It lets a substring search look
+ * only at books that contain every n-gram of some long enough piece of the query, instead of
+ * scanning the whole catalog.
+ */
+class NgramIndex {
+
+    /** length of the character n-grams stored in the index */
+    static final int GRAM = 3;
+
+    private final Map<String, Set<Book>> postings;
+    private final Set<Book> books;
+
+    // rep invariant:
+    //    book is in postings.get(g) iff book is in books and g is an n-gram of book.searchKey().
+    //    no posting set is empty.
+    // abstraction function:
+    //    represents the set of books books, searchable by the n-grams of their text.
+    // safety from rep exposure:
+    //    all fields are private and final.  candidates() returns a fresh set.
+
+    public NgramIndex() {
+        this.postings = new HashMap<String, Set<Book>>();
+        this.books = new HashSet<Book>();
+    }
+
+    /**
+     * Add a book to the index.  Has no effect if the book is already indexed.
+     * @param book book to add
+     */
+    public void add(Book book) {
+        if (!books.add(book)) { return; }
+        String key = book.searchKey();
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            String gram = key.substring(i, i + GRAM);
+            Set<Book> posting = postings.get(gram);
+            if (posting == null) {
+                posting = new HashSet<Book>();
+                postings.put(gram, posting);
+            }
+            posting.add(book);
+        }
+    }
+
+    /**
+     * Add many books to the index; same effect as calling add() on each in turn.  The n-grams of the
+     * books are extracted in parallel, then merged into the postings by the calling thread.
+     * @param newBooks books to add
+     */
+    public void addAll(Collection<Book> newBooks) {
+        List<Book> added = new ArrayList<Book>();
+        for (Book book : newBooks)
+            if (books.add(book)) { added.add(book); }
+        List<Set<String>> grams = added.parallelStream().map(NgramIndex::grams).collect(Collectors.toList());
+        // gather each n-gram's new books first, so each posting set is grown once to its final size
+        Map<String, List<Book>> newPostings = new HashMap<String, List<Book>>();
+        for (int i = 0; i < added.size(); i++) {
+            for (String gram : grams.get(i)) {
+                List<Book> gramBooks = newPostings.get(gram);
+                if (gramBooks == null) {
+                    gramBooks = new ArrayList<Book>();
+                    newPostings.put(gram, gramBooks);
+                }
+                gramBooks.add(added.get(i));
+            }
+        }
+        for (Map.Entry<String, List<Book>> entry : newPostings.entrySet()) {
+            Set<Book> posting = postings.get(entry.getKey());
+            if (posting == null) { postings.put(entry.getKey(), new HashSet<Book>(entry.getValue())); }
+            else { posting.addAll(entry.getValue()); }
+        }
+    }
+
+    // return the distinct n-grams of book's searchable text
+    private static Set<String> grams(Book book) {
+        String key = book.searchKey();
+        Set<String> grams = new HashSet<String>();
+        for (int i = 0; i + GRAM <= key.length(); i++) { grams.add(key.substring(i, i + GRAM)); }
+        return grams;
+    }
+
+    /**
+     * Remove a book from the index.  Has no effect if the book is not indexed.
+     * @param book book to remove
+     */
+    public void remove(Book book) {
+        if (!books.remove(book)) { return; }
+        String key = book.searchKey();
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            String gram = key.substring(i, i + GRAM);
+            Set<Book> posting = postings.get(gram);
+            if (posting == null) { continue; }
+            posting.remove(book);
+            if (posting.isEmpty()) { postings.remove(gram); }
+        }
+    }
+
+    /**
+     * Find the books that could share a common substring of at least minLength characters with query.
+     * Such a substring covers a window of minLength characters of query, and a book containing it
+     * contains every n-gram of that window.  So the candidates are, for each window, the books in
+     * the postings of all its n-grams, found by walking the rarest posting and probing the others.
+     * @param query lower-cased search text
+     * @param minLength minimum length of common substring of interest
+     * @return a fresh set containing every indexed book that shares a substring of length minLength
+     *    with query; if minLength < GRAM the index cannot prune, so every indexed book is returned.
+     */
+    public Set<Book> candidates(String query, int minLength) {
+        if (minLength < GRAM) { return new HashSet<Book>(books); }
+        Set<Book> found = new HashSet<Book>();
+        List<Set<Book>> window = new ArrayList<Set<Book>>();
+        for (int start = 0; start + minLength <= query.length(); start++) {
+            if (!windowPostings(query, start, start + minLength, window)) { continue; }
+            Collections.sort(window, BY_SIZE);
+            for (Book book : window.get(0))
+                if (inAll(book, window)) { found.add(book); }
+        }
+        return found;
+    }
+
+    private static final Comparator<Set<Book>> BY_SIZE = new Comparator<Set<Book>>() {
+        @Override
+        public int compare(Set<Book> a, Set<Book> b) {
+            return Integer.compare(a.size(), b.size());
+        }
+    };
+
+    // replace the contents of window by the postings of the n-grams of query[from .. to); return false,
+    // leaving window unspecified, if one of the n-grams is in no book
+    private boolean windowPostings(String query, int from, int to, List<Set<Book>> window) {
+        window.clear();
+        for (int i = from; i + GRAM <= to; i++) {
+            Set<Book> posting = postings.get(query.substring(i, i + GRAM));
+            if (posting == null) { return false; }
+            window.add(posting);
+        }
+        return true;
+    }
+
+    // return true iff book is in every posting of window after the first
+    private static boolean inAll(Book book, List<Set<Book>> window) {
+        for (int i = 1; i < window.size(); i++)
+            if (!window.get(i).contains(book)) { return false; }
+        return true;
+    }
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,62 @@
+package library;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NgramMatchEngine is a MatchEngine that uses an NgramIndex to narrow each query down to the books that
+ * contain every n-gram of some window of minLength characters of the query (see
+ * NgramIndex.candidates()), then scores only those books with the allocation-free longest common
+ * substring kernel in Substrings.  Queries too short to hold an n-gram in a window score every book.
+ */
+public class NgramMatchEngine implements MatchEngine {
+
+    private final NgramIndex index;
+
+    // rep invariant:
+    //    true (index maintains its own invariant).
+    // abstraction function:
+    //    represents the set of books indexed by index.
+    // safety from rep exposure:
+    //    index is private and final, and never returned.
+
+    public NgramMatchEngine() {
+        this.index = new NgramIndex();
+    }
+
+    @Override
+    public void add(Book book) {
+        index.add(book);
+    }
+
+    /**
+     * Add many books, extracting their n-grams in parallel.
+     */
+    @Override
+    public void addAll(Collection<Book> books) {
+        index.addAll(books);
+    }
+
+    @Override
+    public void remove(Book book) {
+        index.remove(book);
+    }
+
+    @Override
+    public Map<Book, Integer> match(String query, int minLength) {
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (Book book : index.candidates(query, minLength)) {
+            int length = Substrings.longestCommon(query, book.searchKey(), minLength);
+            if (length >= minLength) { scores.put(book, length); }
+        }
+        return scores;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
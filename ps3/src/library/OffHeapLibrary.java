@@ -0,0 +1,682 @@
+package library;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OffHeapLibrary is a Library for very large collections that keeps its books, copies and search
+ * index outside the Java heap, in DirectArenas.  The heap holds a few counters and one small object
+ * per arena whatever the size of the collection, so the garbage collector never has to trace the
+ * catalog.  (The JVM caps direct memory at -XX:MaxDirectMemorySize, which defaults to the heap size.)
+ *
+ * The BookCopy objects it returns are flyweights, as in ColumnarLibrary: handles holding only this
+ * library and the copy's index, equal iff they refer to the same copy, whose book and condition are
+ * read from and written to the arenas.  The Books it returns are decoded for the caller.
+ *
+ * find() has the same stronger spec as BigLibrary.find().  Its index maps each n-gram of a book's
+ * lower-cased title and authors to the books containing it, like NgramIndex, and its candidates are,
+ * as there, the books holding every n-gram of some window of the query; they are scored by reading
+ * their text in place.
+ *
+ * A book whose last copy is lost stays recorded, so that buying it again is cheap, until such dead
+ * books outnumber the live ones; then the library compacts, rebuilding its books, text and index for
+ * the live books alone.  Lost copies keep their 12-byte copy records, because their handles may still
+ * be held and must not come to mean another copy, and a dead book's data record moves to the retired
+ * arena, where its lost copies' getBook() reads it.  Everything else a dead book held is reclaimed.
+ *
+ * Arenas (all integers big-endian):
+ *    books      one BOOK_RECORD-byte record per book: data offset, hash code, first copy, number of
+ *               copies, number of available copies, text offset, text length
+ *    data       per book, a record made by BookRecords
+ *    text       per book, its lower-cased title and authors (Book.searchKey()) as chars
+ *    bookSlots  open-addressing hash table of book id + 1, probed linearly from the book's hash code
+ *    copies     one COPY_RECORD-byte record per copy: book id (or, if RETIRED, offset in retired),
+ *               next copy of the same book, flags
+ *    retired    the data records of books dropped by compaction, for their lost copies
+ *    gramSlots  open-addressing hash table of GRAM_SLOT-byte entries: n-gram, first posting + 1
+ *    postings   one POSTING-byte record per (n-gram, book) pair: book id, next posting of the same n-gram
+ */
+public class OffHeapLibrary implements Library {
+
+    private static final int BOOK_RECORD = 28;
+    private static final int B_DATA = 0;
+    private static final int B_HASH = 4;
+    private static final int B_FIRST = 8;
+    private static final int B_TOTAL = 12;
+    private static final int B_AVAILABLE = 16;
+    private static final int B_TEXT = 20;
+    private static final int B_TEXT_LENGTH = 24;
+
+    private static final int COPY_RECORD = 12;
+    private static final int C_BOOK = 0;
+    private static final int C_NEXT = 4;
+    private static final int C_FLAGS = 8;
+    private static final int LIVE = 1;
+    private static final int AVAILABLE = 2;
+    private static final int DAMAGED = 4;
+    private static final int RETIRED = 8;
+
+    private static final int GRAM_SLOT = 12;
+    private static final int G_GRAM = 0;
+    private static final int G_FIRST = 8;
+
+    private static final int POSTING = 8;
+    private static final int P_BOOK = 0;
+    private static final int P_NEXT = 4;
+
+    private static final int NONE = -1;
+    private static final int INITIAL_SIZE = 4096;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private DirectArena books;
+    private DirectArena data;
+    private DirectArena text;
+    private DirectArena bookSlots;
+    private final DirectArena copies;
+    private final DirectArena retired;
+    private DirectArena gramSlots;
+    private DirectArena postings;
+    private int bookCount;
+    private int deadCount;
+    private int dataEnd;
+    private int textEnd;
+    private int retiredEnd;
+    private int bookCapacity;
+    private int copyCount;
+    private int gramCount;
+    private int gramCapacity;
+    private int postingCount;
+
+    // rep invariant:
+    //    books, copies and postings hold bookCount, copyCount and postingCount records; data, text and
+    //      retired are used up to dataEnd, textEnd and retiredEnd.
+    //    each book id in [0, bookCount) has a record in books whose data is at its data offset, whose
+    //      hash is the Book's hashCode(), whose text is its searchKey(), and whose id + 1 is in bookSlots
+    //      within the probe run of that hash code.  no two books are equal.  the data records of books
+    //      0, 1, ... lie in that order, end to end, from offset 0 of data to dataEnd.
+    //    deadCount is the number of books with no copies, and 2 * deadCount <= bookCount.
+    //    bookCapacity and gramCapacity are the numbers of slots in bookSlots and gramSlots, powers of two
+    //      at least twice bookCount and gramCount.
+    //    the copies of a book with the LIVE flag are exactly those in the chain from its first copy
+    //      through next; its total and available counts are the numbers of them with LIVE and with
+    //      AVAILABLE set.  a copy without LIVE has AVAILABLE clear.
+    //    a copy with RETIRED has LIVE clear, and its book field is the offset in retired of its book's
+    //      data record; the book field of every other copy is a book id.
+    //    gramSlots holds gramCount distinct n-grams, each within the probe run of its hash; the postings
+    //      chain of an n-gram holds exactly the ids of the books whose text contains it, once each.
+    // abstraction function:
+    //    represents the collection of live copies in copies, where a copy is damaged iff its DAMAGED
+    //      flag is set, and available iff its AVAILABLE flag is set.  books with no live copies,
+    //      and their n-grams, are not part of the collection.
+    // safety from rep exposure:
+    //    all fields are private, and the arenas are never returned.  Sets and lists returned to the
+    //    user are fresh, and the Books in them are decoded for the caller.  Copy handles only hold
+    //    this library and an index, and only their own copy's DAMAGED flag can be changed through them.
+    //    copy indexes are never reused, so a handle always refers to the same copy.
+
+    /**
+     * Make an empty OffHeapLibrary.
+     */
+    public OffHeapLibrary() {
+        this.books = new DirectArena(INITIAL_SIZE);
+        this.data = new DirectArena(INITIAL_SIZE);
+        this.text = new DirectArena(INITIAL_SIZE);
+        this.bookSlots = new DirectArena(INITIAL_SLOTS * 4);
+        this.copies = new DirectArena(INITIAL_SIZE);
+        this.retired = new DirectArena(INITIAL_SIZE);
+        this.gramSlots = new DirectArena(INITIAL_SLOTS * GRAM_SLOT);
+        this.postings = new DirectArena(INITIAL_SIZE);
+        this.bookCapacity = INITIAL_SLOTS;
+        this.gramCapacity = INITIAL_SLOTS;
+        assert checkAll();
+    }
+
+    // assert the rep invariant for the copies of book id b, and now and then (see RepAudit) for the whole rep
+    private void checkRep(int b) {
+        assert checkBook(b);
+        assert !RepAudit.sample(copyCount) || checkAll();
+    }
+
+    // assert the rep invariant for the copies of book id b; return true so it can be called from an assert
+    private boolean checkBook(int b) {
+        assert b >= 0 && b < bookCount;
+        int total = 0;
+        int available = 0;
+        for (int c = bookField(b, B_FIRST); c != NONE; c = copyField(c, C_NEXT)) {
+            assert c < copyCount;
+            assert copyField(c, C_BOOK) == b;
+            assert (copyField(c, C_FLAGS) & LIVE) != 0;
+            total++;
+            if ((copyField(c, C_FLAGS) & AVAILABLE) != 0) { available++; }
+        }
+        assert total == bookField(b, B_TOTAL);
+        assert available == bookField(b, B_AVAILABLE);
+        return true;
+    }
+
+    // assert the whole rep invariant; return true so it can be called from an assert
+    private boolean checkAll() {
+        assert Integer.bitCount(bookCapacity) == 1 && 2 * bookCount <= bookCapacity;
+        assert Integer.bitCount(gramCapacity) == 1 && 2 * gramCount <= gramCapacity;
+        int live = 0;
+        int dead = 0;
+        for (int b = 0; b < bookCount; b++) {
+            assert checkBook(b);
+            assert bookField(b, B_DATA) == ((b == 0) ? 0 : bookField(b - 1, B_DATA) + recordLength(b - 1));
+            Book book = readBook(b);
+            assert lookup(book) == b;
+            assert book.searchKey().contentEquals(new Text(b));
+            live += bookField(b, B_TOTAL);
+            if (bookField(b, B_TOTAL) == 0) { dead++; }
+        }
+        assert bookCount == 0 || bookField(bookCount - 1, B_DATA) + recordLength(bookCount - 1) == dataEnd;
+        assert dead == deadCount && 2 * deadCount <= bookCount;
+        for (int c = 0; c < copyCount; c++) {
+            int flags = copyField(c, C_FLAGS);
+            if ((flags & LIVE) != 0) { live--; }
+            else { assert (flags & AVAILABLE) == 0; }
+            if ((flags & RETIRED) != 0) { assert (flags & LIVE) == 0 && copyField(c, C_BOOK) < retiredEnd; }
+            else { assert copyField(c, C_BOOK) < bookCount; }
+        }
+        assert live == 0;
+        return true;
+    }
+
+    @Override
+    public BookCopy buy(Book book) {
+        byte[] record = BookRecords.encode(book);
+        int b = lookup(book.hashCode(), record);
+        if (b == NONE) { b = addBook(book, record); }
+        else if (bookField(b, B_TOTAL) == 0) { deadCount--; }
+        int c = copyCount++;
+        copies.ensureCapacity(copyCount * COPY_RECORD);
+        setCopyField(c, C_BOOK, b);
+        setCopyField(c, C_NEXT, bookField(b, B_FIRST));
+        setCopyField(c, C_FLAGS, LIVE | AVAILABLE);
+        setBookField(b, B_FIRST, c);
+        setBookField(b, B_TOTAL, bookField(b, B_TOTAL) + 1);
+        setBookField(b, B_AVAILABLE, bookField(b, B_AVAILABLE) + 1);
+        checkRep(b);
+        return new Copy(this, c);
+    }
+
+    @Override
+    public void checkout(BookCopy copy) {
+        if (!isAvailable(copy)) { return; }
+        int c = copy.id();
+        setCopyField(c, C_FLAGS, copyField(c, C_FLAGS) & ~AVAILABLE);
+        int b = copyField(c, C_BOOK);
+        setBookField(b, B_AVAILABLE, bookField(b, B_AVAILABLE) - 1);
+        checkRep(b);
+    }
+
+    @Override
+    public void checkin(BookCopy copy) {
+        if (!owns(copy) || isAvailable(copy)) { return; }
+        int c = copy.id();
+        setCopyField(c, C_FLAGS, copyField(c, C_FLAGS) | AVAILABLE);
+        int b = copyField(c, C_BOOK);
+        setBookField(b, B_AVAILABLE, bookField(b, B_AVAILABLE) + 1);
+        checkRep(b);
+    }
+
+    @Override
+    public boolean isAvailable(BookCopy copy) {
+        return owns(copy) && (copyField(copy.id(), C_FLAGS) & AVAILABLE) != 0;
+    }
+
+    @Override
+    public Set<BookCopy> allCopies(Book book) {
+        return copiesOf(book, LIVE);
+    }
+
+    @Override
+    public Set<BookCopy> availableCopies(Book book) {
+        return copiesOf(book, AVAILABLE);
+    }
+
+    // return a fresh set of handles onto the copies of book that have all the given flags
+    private Set<BookCopy> copiesOf(Book book, int required) {
+        int b = lookup(book);
+        if (b == NONE) { return Collections.emptySet(); }
+        Set<BookCopy> found = new HashSet<BookCopy>();
+        for (int c = bookField(b, B_FIRST); c != NONE; c = copyField(c, C_NEXT)) {
+            if ((copyField(c, C_FLAGS) & required) == required) { found.add(new Copy(this, c)); }
+        }
+        return found;
+    }
+
+    /**
+     * Same stronger spec as BigLibrary.find().
+     */
+    @Override
+    public List<Book> find(String query) {
+        query = query.toLowerCase();
+        int minLength = query.length() - 2;
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        BitSet candidates = candidates(query, minLength);
+        for (int b = candidates.nextSetBit(0); b >= 0; b = candidates.nextSetBit(b + 1)) {
+            int length = Substrings.longestCommon(query, new Text(b), minLength);
+            if (length >= minLength) { scores.put(readBook(b), length); }
+        }
+        List<Book> findResult = new ArrayList<Book>(scores.keySet());
+        Collections.sort(findResult, new MatchComparator(scores));
+        return findResult;
+    }
+
+    // return the ids of the books with copies that could share a substring of minLength characters with
+    // query: as in NgramIndex, for each window of minLength characters, the books in the postings of
+    // all its n-grams.  The postings are chains without a membership test, so each n-gram's chain is
+    // walked once into a set, and each window intersects its sets starting from the smallest.
+    private BitSet candidates(String query, int minLength) {
+        BitSet found = new BitSet();
+        if (minLength < NgramIndex.GRAM) {
+            for (int b = 0; b < bookCount; b++)
+                if (bookField(b, B_TOTAL) > 0) { found.set(b); }
+            return found;
+        }
+        Map<Long, BitSet> gramBooks = new HashMap<Long, BitSet>();
+        for (int i = 0; i + NgramIndex.GRAM <= query.length(); i++) {
+            long gram = gram(query, i);
+            if (gramBooks.containsKey(gram)) { continue; }
+            BitSet books = new BitSet();
+            int slot = gramSlot(gram);
+            for (int p = gramSlots.buffer().getInt(slot * GRAM_SLOT + G_FIRST) - 1; p != NONE; p = postingField(p, P_NEXT)) {
+                int b = postingField(p, P_BOOK);
+                if (bookField(b, B_TOTAL) > 0) { books.set(b); }
+            }
+            gramBooks.put(gram, books);
+        }
+        for (int start = 0; start + minLength <= query.length(); start++) {
+            BitSet rarest = null;
+            for (int i = start; i + NgramIndex.GRAM <= start + minLength; i++) {
+                BitSet books = gramBooks.get(gram(query, i));
+                if (rarest == null || books.cardinality() < rarest.cardinality()) { rarest = books; }
+            }
+            BitSet window = (BitSet) rarest.clone();
+            for (int i = start; i + NgramIndex.GRAM <= start + minLength && !window.isEmpty(); i++) {
+                window.and(gramBooks.get(gram(query, i)));
+            }
+            found.or(window);
+        }
+        return found;
+    }
+
+    @Override
+    public void lose(BookCopy copy) {
+        if (!owns(copy)) { return; }
+        int c = copy.id();
+        int flags = copyField(c, C_FLAGS);
+        int b = copyField(c, C_BOOK);
+        // unlink the copy from its book's chain
+        int previous = NONE;
+        for (int d = bookField(b, B_FIRST); d != c; d = copyField(d, C_NEXT)) { previous = d; }
+        if (previous == NONE) { setBookField(b, B_FIRST, copyField(c, C_NEXT)); }
+        else { setCopyField(previous, C_NEXT, copyField(c, C_NEXT)); }
+        setCopyField(c, C_NEXT, NONE);
+        setCopyField(c, C_FLAGS, flags & DAMAGED);
+        setBookField(b, B_TOTAL, bookField(b, B_TOTAL) - 1);
+        if ((flags & AVAILABLE) != 0) { setBookField(b, B_AVAILABLE, bookField(b, B_AVAILABLE) - 1); }
+        if (bookField(b, B_TOTAL) == 0) { deadCount++; }
+        if (2 * deadCount > bookCount) { compact(); }
+        else { checkRep(b); }
+    }
+
+    // drop the books with no copies: rebuild books, data, text and both hash tables for the live books,
+    // renumbered in order, and point their copies at the new ids.  the data record of each dropped book
+    // moves to retired, and its lost copies are marked RETIRED and pointed at it there.
+    private void compact() {
+        int[] renumbered = new int[bookCount];
+        int[] retiredAt = new int[bookCount];
+        Arrays.fill(retiredAt, NONE);
+        DirectArena newBooks = new DirectArena(INITIAL_SIZE);
+        DirectArena newData = new DirectArena(INITIAL_SIZE);
+        DirectArena newText = new DirectArena(INITIAL_SIZE);
+        int live = 0;
+        int newDataEnd = 0;
+        int newTextEnd = 0;
+        for (int b = 0; b < bookCount; b++) {
+            if (bookField(b, B_TOTAL) == 0) {
+                renumbered[b] = NONE;
+                continue;
+            }
+            int length = recordLength(b);
+            int textLength = 2 * bookField(b, B_TEXT_LENGTH);
+            newBooks.ensureCapacity((live + 1) * BOOK_RECORD);
+            newData.ensureCapacity(newDataEnd + length);
+            newText.ensureCapacity(newTextEnd + textLength);
+            copyBytes(books, b * BOOK_RECORD, BOOK_RECORD, newBooks, live * BOOK_RECORD);
+            copyBytes(data, bookField(b, B_DATA), length, newData, newDataEnd);
+            copyBytes(text, bookField(b, B_TEXT), textLength, newText, newTextEnd);
+            newBooks.buffer().putInt(live * BOOK_RECORD + B_DATA, newDataEnd);
+            newBooks.buffer().putInt(live * BOOK_RECORD + B_TEXT, newTextEnd);
+            newDataEnd += length;
+            newTextEnd += textLength;
+            renumbered[b] = live++;
+        }
+        for (int c = 0; c < copyCount; c++) {
+            int flags = copyField(c, C_FLAGS);
+            if ((flags & RETIRED) != 0) { continue; }
+            int b = copyField(c, C_BOOK);
+            if (renumbered[b] != NONE) {
+                setCopyField(c, C_BOOK, renumbered[b]);
+                continue;
+            }
+            if (retiredAt[b] == NONE) {
+                int length = recordLength(b);
+                retired.ensureCapacity(retiredEnd + length);
+                copyBytes(data, bookField(b, B_DATA), length, retired, retiredEnd);
+                retiredAt[b] = retiredEnd;
+                retiredEnd += length;
+            }
+            setCopyField(c, C_BOOK, retiredAt[b]);
+            setCopyField(c, C_FLAGS, flags | RETIRED);
+        }
+        books = newBooks;
+        data = newData;
+        text = newText;
+        bookCount = live;
+        deadCount = 0;
+        dataEnd = newDataEnd;
+        textEnd = newTextEnd;
+        int capacity = INITIAL_SLOTS;
+        while (2 * bookCount > capacity) { capacity *= 2; }
+        rehashBooks(capacity);
+        gramSlots = new DirectArena(INITIAL_SLOTS * GRAM_SLOT);
+        gramCapacity = INITIAL_SLOTS;
+        gramCount = 0;
+        postings = new DirectArena(INITIAL_SIZE);
+        postingCount = 0;
+        for (int b = 0; b < bookCount; b++) { indexGrams(b, new Text(b)); }
+        assert checkAll();
+    }
+
+    // copy length bytes from offset start of one arena to offset at of another, which must be big enough
+    private static void copyBytes(DirectArena from, int start, int length, DirectArena to, int at) {
+        ByteBuffer source = from.buffer().duplicate();
+        source.limit(start + length).position(start);
+        ByteBuffer target = to.buffer().duplicate();
+        target.position(at);
+        target.put(source);
+    }
+
+    // return the number of bytes in the data record of book id b
+    private int recordLength(int b) {
+        int end = (b + 1 < bookCount) ? bookField(b + 1, B_DATA) : dataEnd;
+        return end - bookField(b, B_DATA);
+    }
+
+    // number of books recorded, including those with no copies not yet dropped by compaction, for testing
+    int recordedBooks() {
+        return bookCount;
+    }
+
+    // return true iff copy is a handle onto a copy in this library
+    private boolean owns(BookCopy copy) {
+        return copy.owner() == this && (copyField(copy.id(), C_FLAGS) & LIVE) != 0;
+    }
+
+    private int bookField(int b, int field) {
+        return books.buffer().getInt(b * BOOK_RECORD + field);
+    }
+
+    private void setBookField(int b, int field, int value) {
+        books.buffer().putInt(b * BOOK_RECORD + field, value);
+    }
+
+    private int copyField(int c, int field) {
+        return copies.buffer().getInt(c * COPY_RECORD + field);
+    }
+
+    private void setCopyField(int c, int field, int value) {
+        copies.buffer().putInt(c * COPY_RECORD + field, value);
+    }
+
+    private int postingField(int p, int field) {
+        return postings.buffer().getInt(p * POSTING + field);
+    }
+
+    // decode the book with id b
+    private Book readBook(int b) {
+        return BookRecords.decode(data.buffer(), bookField(b, B_DATA));
+    }
+
+    // decode the book of copy c, live or lost
+    private Book bookOf(int c) {
+        int b = copyField(c, C_BOOK);
+        if ((copyField(c, C_FLAGS) & RETIRED) != 0) { return BookRecords.decode(retired.buffer(), b); }
+        else { return readBook(b); }
+    }
+
+    // return the id of book, or NONE if it is not recorded
+    private int lookup(Book book) {
+        return lookup(book.hashCode(), BookRecords.encode(book));
+    }
+
+    // return the id of the book with the given hash code whose data record is record, or NONE if it is
+    // not recorded; compares record with the data arena in place, without decoding
+    private int lookup(int hash, byte[] record) {
+        int mask = bookCapacity - 1;
+        ByteBuffer slots = bookSlots.buffer();
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int b = slots.getInt(slot * 4) - 1;
+            if (b == NONE) { return NONE; }
+            if (bookField(b, B_HASH) == hash && recordEquals(b, record)) { return b; }
+        }
+    }
+
+    // return true iff the data record of book id b is record
+    private boolean recordEquals(int b, byte[] record) {
+        if (recordLength(b) != record.length) { return false; }
+        ByteBuffer bookData = data.buffer();
+        int offset = bookField(b, B_DATA);
+        for (int i = 0; i < record.length; i++)
+            if (bookData.get(offset + i) != record[i]) { return false; }
+        return true;
+    }
+
+    // record a new book with no copies, whose data record is record, and index its n-grams; return its id
+    private int addBook(Book book, byte[] record) {
+        int b = bookCount++;
+        data.ensureCapacity(dataEnd + record.length);
+        ByteBuffer bookData = data.buffer().duplicate();
+        bookData.position(dataEnd);
+        bookData.put(record);
+        String key = book.searchKey();
+        text.ensureCapacity(textEnd + 2 * key.length());
+        for (int i = 0; i < key.length(); i++) { text.buffer().putChar(textEnd + 2 * i, key.charAt(i)); }
+        books.ensureCapacity(bookCount * BOOK_RECORD);
+        setBookField(b, B_DATA, dataEnd);
+        setBookField(b, B_HASH, book.hashCode());
+        setBookField(b, B_FIRST, NONE);
+        setBookField(b, B_TOTAL, 0);
+        setBookField(b, B_AVAILABLE, 0);
+        setBookField(b, B_TEXT, textEnd);
+        setBookField(b, B_TEXT_LENGTH, key.length());
+        dataEnd += record.length;
+        textEnd += 2 * key.length();
+        if (2 * bookCount > bookCapacity) { rehashBooks(2 * bookCapacity); }
+        else { insertBook(b); }
+        indexGrams(b, key);
+        return b;
+    }
+
+    // grow the book hash table to capacity slots and reinsert every book
+    private void rehashBooks(int capacity) {
+        bookSlots = new DirectArena(capacity * 4);
+        bookCapacity = capacity;
+        for (int b = 0; b < bookCount; b++) { insertBook(b); }
+    }
+
+    private void insertBook(int b) {
+        int mask = bookCapacity - 1;
+        ByteBuffer slots = bookSlots.buffer();
+        int slot = bookField(b, B_HASH) & mask;
+        while (slots.getInt(slot * 4) != 0) { slot = (slot + 1) & mask; }
+        slots.putInt(slot * 4, b + 1);
+    }
+
+    // add book id b to the postings of each distinct n-gram of its text key
+    private void indexGrams(int b, CharSequence key) {
+        if (key.length() < NgramIndex.GRAM) { return; }
+        long[] grams = new long[key.length() - NgramIndex.GRAM + 1];
+        for (int i = 0; i < grams.length; i++) { grams[i] = gram(key, i); }
+        Arrays.sort(grams);
+        for (int i = 0; i < grams.length; i++) {
+            long gram = grams[i];
+            if (i > 0 && gram == grams[i - 1]) { continue; }
+            int slot = gramSlot(gram);
+            ByteBuffer slots = gramSlots.buffer();
+            if (slots.getInt(slot * GRAM_SLOT + G_FIRST) == 0) {
+                if (2 * (gramCount + 1) > gramCapacity) {
+                    rehashGrams(2 * gramCapacity);
+                    slot = gramSlot(gram);
+                    slots = gramSlots.buffer();
+                }
+                gramCount++;
+                slots.putLong(slot * GRAM_SLOT + G_GRAM, gram);
+            }
+            int p = postingCount++;
+            postings.ensureCapacity(postingCount * POSTING);
+            postings.buffer().putInt(p * POSTING + P_BOOK, b);
+            postings.buffer().putInt(p * POSTING + P_NEXT, slots.getInt(slot * GRAM_SLOT + G_FIRST) - 1);
+            slots.putInt(slot * GRAM_SLOT + G_FIRST, p + 1);
+        }
+    }
+
+    // return the slot holding gram, or the empty slot where it would go
+    private int gramSlot(long gram) {
+        int mask = gramCapacity - 1;
+        ByteBuffer slots = gramSlots.buffer();
+        int slot = hashGram(gram) & mask;
+        while (slots.getInt(slot * GRAM_SLOT + G_FIRST) != 0 && slots.getLong(slot * GRAM_SLOT + G_GRAM) != gram) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // grow the n-gram hash table to capacity slots and reinsert every n-gram
+    private void rehashGrams(int capacity) {
+        ByteBuffer old = gramSlots.buffer();
+        int oldCapacity = gramCapacity;
+        gramSlots = new DirectArena(capacity * GRAM_SLOT);
+        gramCapacity = capacity;
+        ByteBuffer slots = gramSlots.buffer();
+        for (int i = 0; i < oldCapacity; i++) {
+            int first = old.getInt(i * GRAM_SLOT + G_FIRST);
+            if (first == 0) { continue; }
+            long gram = old.getLong(i * GRAM_SLOT + G_GRAM);
+            int slot = gramSlot(gram);
+            slots.putLong(slot * GRAM_SLOT + G_GRAM, gram);
+            slots.putInt(slot * GRAM_SLOT + G_FIRST, first);
+        }
+    }
+
+    // pack the n-gram of s starting at index i into a long
+    private static long gram(CharSequence s, int i) {
+        long gram = 0;
+        for (int j = i; j < i + NgramIndex.GRAM; j++) { gram = (gram << 16) | s.charAt(j); }
+        return gram;
+    }
+
+    private static int hashGram(long gram) {
+        return (int) ((gram * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    /**
+     * Text is a view of the text key of one book, read in place from the text arena.
+     */
+    private final class Text implements CharSequence {
+
+        private final int start;
+        private final int length;
+
+        Text(int b) {
+            this.start = bookField(b, B_TEXT);
+            this.length = bookField(b, B_TEXT_LENGTH);
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.buffer().getChar(start + 2 * index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().subSequence(from, to);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(length);
+            for (int i = 0; i < length; i++) { builder.append(charAt(i)); }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Copy is a flyweight handle onto a copy in an OffHeapLibrary.  It holds nothing but the library and
+     * the copy's index, which it keeps in BookCopy's owner and id; equality is by library and index.
+     */
+    private static final class Copy extends BookCopy {
+
+        Copy(OffHeapLibrary library, int c) {
+            super(library, c);
+        }
+
+        private OffHeapLibrary library() {
+            return (OffHeapLibrary) owner();
+        }
+
+        @Override
+        public Book getBook() {
+            return library().bookOf(id());
+        }
+
+        @Override
+        public Condition getCondition() {
+            if ((library().copyField(id(), C_FLAGS) & DAMAGED) != 0) { return Condition.DAMAGED; }
+            else { return Condition.GOOD; }
+        }
+
+        @Override
+        public void setCondition(Condition condition) {
+            int flags = library().copyField(id(), C_FLAGS);
+            if (condition == Condition.DAMAGED) { flags |= DAMAGED; }
+            else { flags &= ~DAMAGED; }
+            library().setCopyField(id(), C_FLAGS, flags);
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            if (!(that instanceof Copy)) { return false; }
+            Copy thatCopy = (Copy) that;
+            return this.owner() == thatCopy.owner() && this.id() == thatCopy.id();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(owner()) + id();
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,117 @@
+package library;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * QueryCache is a bounded cache of query results that evicts the least recently used entry when full.
+ * Results are invalidated in bulk by advancing a generation: an entry computed in an earlier
+ * generation is never returned, and is dropped when next looked up.  So invalidation takes constant
+ * time however many entries are cached.
+ *
+ * @param <V> type of the cached results, which must not be mutated once cached
+ */
+class QueryCache<V> {
+
+    private final int capacity;
+    private final LinkedHashMap<String, Cached<V>> entries;
+    private long generation;
+    private long hits;
+    private long misses;
+
+    // rep invariant:
+    //    capacity >= 0, entries.size() <= capacity, and no entry has a generation above generation.
+    //    hits and misses are nonnegative.
+    // abstraction function:
+    //    represents the map from each query q in entries whose entry has the current generation to its
+    //      result, ordered from least to most recently used, plus the counts of lookups that found a
+    //      result (hits) and did not (misses).
+    // safety from rep exposure:
+    //    all fields are private; entries is never returned.  Results are shared with the caller, who
+    //    promises not to mutate them.
+
+    private static final class Cached<V> {
+        final V result;
+        final long generation;
+
+        Cached(V result, long generation) {
+            this.result = result;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Make an empty cache.
+     * @param capacity most entries to keep; 0 caches nothing
+     */
+    public QueryCache(final int capacity) {
+        assert capacity >= 0;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Cached<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached<V>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Look up the result of a query, counting a hit or a miss, and marking it most recently used.
+     * @param query query
+     * @return the result cached for query in the current generation, or null if there is none
+     */
+    public V get(String query) {
+        Cached<V> entry = entries.get(query);
+        if (entry != null && entry.generation != generation) {
+            entries.remove(query);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    /**
+     * Cache the result of a query in the current generation, evicting the least recently used entry
+     * if the cache is full.
+     * @param query query
+     * @param result result of query, which must not be mutated afterwards
+     */
+    public void put(String query, V result) {
+        if (capacity == 0) { return; }
+        entries.put(query, new Cached<V>(result, generation));
+    }
+
+    /**
+     * Invalidate every cached result.
+     */
+    public void invalidate() {
+        generation++;
+    }
+
+    /**
+     * @return number of calls to get() that returned a result
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return number of calls to get() that returned null
+     */
+    public long misses() {
+        return misses;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
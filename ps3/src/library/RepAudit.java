@@ -0,0 +1,65 @@
+package library;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RepAudit decides when a library should check its whole rep invariant rather than only the entries
+ * touched by an operation.  Full audits are sampled so that their expected cost per operation stays
+ * constant however large the library grows: after an operation on a rep of n entries, a full audit
+ * runs with probability min(1, rate / n).
+ *
+ * The rate is read from the system property library.audit.rate (default 1.0, the cost of checking
+ * about one entry per operation); 0 turns full audits off, and a value that is not a number is ignored
+ * in favor of the default.  Libraries only consult RepAudit from
+ * assert statements, so none of this costs anything unless assertions are enabled.
+ */
+final class RepAudit {
+
+    /** name of the system property holding the sampling rate */
+    static final String RATE_PROPERTY = "library.audit.rate";
+
+    private static final double DEFAULT_RATE = 1.0;
+
+    private static final double RATE = parseRate(System.getProperty(RATE_PROPERTY));
+
+    private RepAudit() {
+        throw new AssertionError("not instantiable");
+    }
+
+    /**
+     * Decide whether to audit a whole rep after an operation on it.
+     * @param size number of entries (e.g. copies) a full audit of the rep would check
+     * @return true with probability min(1, rate / size), independently on every call; always false if
+     *    the rate is 0
+     */
+    static boolean sample(int size) {
+        return sample(size, RATE);
+    }
+
+    /**
+     * @param value value of the rate property, or null if it is not set
+     * @return the rate value names, or the default rate if value is null or not a number
+     */
+    static double parseRate(String value) {
+        if (value == null) { return DEFAULT_RATE; }
+        try {
+            double rate = Double.parseDouble(value.trim());
+            return Double.isNaN(rate) ? DEFAULT_RATE : rate;
+        } catch (NumberFormatException e) {
+            return DEFAULT_RATE;
+        }
+    }
+
+    // sample() with the given rate, for testing
+    static boolean sample(int size, double rate) {
+        if (rate <= 0) { return false; }
+        return size <= rate || ThreadLocalRandom.current().nextDouble() * size < rate;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
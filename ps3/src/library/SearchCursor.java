@@ -0,0 +1,121 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * SearchCursor is a mutable cursor over the ranked results of a search, returned a page at a time.
+ * The cursor holds all n results, so it takes O(n) space.  The first page is selected with a bounded
+ * heap in O(n log pageSize) time, so a caller who reads only one page never sorts the results; the
+ * second page sorts the results once, in O(n log n) time, and it and every later page are then
+ * copied out by offset in O(pageSize) time.  Reading every page costs O(n log n) in all.
+ * 
+ * A cursor is a snapshot: it ranks the books that matched when it was made, and does not reflect
+ * later changes to the library.
+ */
+public class SearchCursor {
+
+    private final List<Book> results;
+    private final Comparator<Book> ranking;
+    private final int pageSize;
+    private int returned;
+    private boolean sorted;
+
+    // rep invariant:
+    //    pageSize > 0, 0 <= returned <= results.size().
+    //    returned <= pageSize unless sorted; if sorted, results is in order of ranking.
+    // abstraction function:
+    //    represents the list of results sorted by ranking, of which the first returned have been
+    //      handed out in pages of pageSize.
+    // safety from rep exposure:
+    //    all fields are private; results is a private copy; pages are fresh lists.
+
+    /**
+     * Make a cursor.
+     * @param results books to rank; no two may compare equal under ranking
+     * @param ranking order of the results, best first
+     * @param pageSize maximum number of books per page; must be positive
+     */
+    SearchCursor(Collection<Book> results, Comparator<Book> ranking, int pageSize) {
+        this.results = new ArrayList<Book>(results);
+        this.ranking = ranking;
+        this.pageSize = pageSize;
+        checkRep();
+    }
+
+    // assert the rep invariant
+    private void checkRep() {
+        assert pageSize > 0;
+        assert returned >= 0 && returned <= results.size();
+        assert sorted || returned <= pageSize;
+    }
+
+    /**
+     * @return total number of results, over all pages
+     */
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * @return true iff there are results not yet returned by nextPage()
+     */
+    public boolean hasNext() {
+        return returned < results.size();
+    }
+
+    /**
+     * @return the next at most pageSize results, best first
+     * @throws NoSuchElementException if !hasNext()
+     */
+    public List<Book> nextPage() {
+        if (!hasNext()) { throw new NoSuchElementException("no more results"); }
+        List<Book> page;
+        if (returned == 0) {
+            page = top(results, ranking, pageSize);
+        } else {
+            if (!sorted) {
+                Collections.sort(results, ranking);
+                sorted = true;
+            }
+            page = new ArrayList<Book>(results.subList(returned, Math.min(returned + pageSize, results.size())));
+        }
+        returned += page.size();
+        checkRep();
+        return page;
+    }
+
+    /**
+     * Select the best results with a bounded heap.
+     * @param results books to choose from; no two may compare equal under ranking
+     * @param ranking order of the results, best first
+     * @param limit maximum number of books to select; must be positive
+     * @return fresh list of the best min(limit, results.size()) results, best first
+     */
+    static List<Book> top(Collection<Book> results, Comparator<Book> ranking, int limit) {
+        Comparator<Book> worstFirst = Collections.reverseOrder(ranking);
+        PriorityQueue<Book> heap = new PriorityQueue<Book>(Math.min(limit, Math.max(1, results.size())), worstFirst);
+        for (Book book : results) {
+            if (heap.size() < limit) { heap.add(book); }
+            else if (ranking.compare(book, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(book);
+            }
+        }
+        List<Book> best = new ArrayList<Book>(heap);
+        Collections.sort(best, ranking);
+        return best;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
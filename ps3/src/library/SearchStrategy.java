@@ -0,0 +1,71 @@
+package library;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SearchStrategy is a mutable index over a set of books that scores them against a query.
+ * BigLibrary uses a SearchStrategy to answer find(): the books scored are the results, highest score
+ * first, with ties broken newest first, then by title, then by authors.
+ *
+ * To satisfy Library.find(), a strategy must score every book against its own title and against each
+ * of its authors, and must give books with the same title and authors the same score.  Scoring must
+ * ignore case: BigLibrary passes the lower-cased query, and caches results under it.
+ */
+public interface SearchStrategy {
+
+    /**
+     * Add a book to the index.  Has no effect if the book is already present.
+     * @param book book to add
+     */
+    public void add(Book book);
+
+    /**
+     * Add many books to the index; same effect as calling add() on each in turn.  Strategies that can
+     * index books faster in bulk override this.
+     * @param books books to add
+     */
+    public default void addAll(Collection<Book> books) {
+        for (Book book : books) { add(book); }
+    }
+
+    /**
+     * Remove a book from the index.  Has no effect if the book is not present.
+     * @param book book to remove
+     */
+    public void remove(Book book);
+
+    /**
+     * Score the books in the index against a query.
+     * @param query search string, as given to find() but lower-cased
+     * @return a fresh map from each book in the index that matches query to its score; higher scores
+     *    are better matches
+     */
+    public Map<Book, Integer> score(String query);
+
+    /**
+     * Score some of the books in the index against a query, as score(query) would.  The default scores
+     * the whole index and keeps the given books; strategies that can score one book at a time override
+     * this to take time proportional to the number of books given.
+     * @param query search string, as given to find() but lower-cased
+     * @param books books in the index
+     * @return a fresh map from each book in books that matches query to its score in score(query)
+     */
+    public default Map<Book, Integer> score(String query, Collection<Book> books) {
+        Map<Book, Integer> all = score(query);
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (Book book : books) {
+            Integer score = all.get(book);
+            if (score != null) { scores.put(book, score); }
+        }
+        return scores;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,201 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ShardedSearch is a SearchStrategy that partitions the books among several shards, each its own
+ * SearchStrategy, and scores the shards in parallel on a ForkJoinPool.  A book's score is the score
+ * its shard gives it, so ShardedSearch ranks exactly as its shards do.  Collections smaller than a
+ * threshold are scored on the calling thread, where forking would cost more than it saves.
+ *
+ * Shards are only ever used by one thread at a time, so they need not be thread-safe; but add(),
+ * addAll(), remove() and score() must not be called concurrently with each other.
+ */
+public class ShardedSearch implements SearchStrategy {
+
+    /** default number of books below which queries are scored on the calling thread */
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    private final List<SearchStrategy> shards;
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final Set<Book> books;
+
+    // rep invariant:
+    //    shards is non-empty.  each book in books is in exactly the shard at shardOf(book), and the
+    //      shards hold no other books.
+    //    threshold >= 0.
+    // abstraction function:
+    //    represents the set of books books.
+    // safety from rep exposure:
+    //    all fields are private and final; shards and books are never returned, and score() returns
+    //    a fresh map.
+
+    /**
+     * Make an empty ShardedSearch with the given number of shards, each a SubstringSearch over an
+     * n-gram index, scored on the common ForkJoinPool.
+     * @param shardCount number of shards; must be positive
+     */
+    public ShardedSearch(int shardCount) {
+        this(substringShards(shardCount), ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    private static List<SearchStrategy> substringShards(int shardCount) {
+        List<SearchStrategy> shards = new ArrayList<SearchStrategy>();
+        for (int i = 0; i < shardCount; i++) { shards.add(new SubstringSearch(new NgramMatchEngine())); }
+        return shards;
+    }
+
+    /**
+     * Make an empty ShardedSearch.
+     * @param shards non-empty list of distinct, empty SearchStrategies to partition the books among;
+     *    they become part of this strategy's rep and must not be used by the client afterwards.
+     * @param pool pool that scores the shards in parallel
+     * @param threshold number of books below which queries and bulk adds run on the calling thread;
+     *    must be nonnegative
+     */
+    public ShardedSearch(List<SearchStrategy> shards, ForkJoinPool pool, int threshold) {
+        assert !shards.isEmpty() && threshold >= 0;
+        this.shards = new ArrayList<SearchStrategy>(shards);
+        this.pool = pool;
+        this.threshold = threshold;
+        this.books = new HashSet<Book>();
+    }
+
+    // return the index of the shard that holds book
+    private int shardOf(Book book) {
+        int hash = book.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards.size());
+    }
+
+    @Override
+    public void add(Book book) {
+        if (books.add(book)) { shards.get(shardOf(book)).add(book); }
+    }
+
+    /**
+     * Add many books, indexing the shards in parallel if there are enough of them.
+     */
+    @Override
+    public void addAll(Collection<Book> newBooks) {
+        final List<List<Book>> byShard = new ArrayList<List<Book>>();
+        for (int i = 0; i < shards.size(); i++) { byShard.add(new ArrayList<Book>()); }
+        for (Book book : newBooks)
+            if (books.add(book)) { byShard.get(shardOf(book)).add(book); }
+        if (newBooks.size() < threshold) {
+            for (int i = 0; i < shards.size(); i++) { shards.get(i).addAll(byShard.get(i)); }
+            return;
+        }
+        RecursiveAction index = new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+                for (int i = 0; i < shards.size(); i++) {
+                    final int shard = i;
+                    tasks.add(new RecursiveAction() {
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        protected void compute() {
+                            shards.get(shard).addAll(byShard.get(shard));
+                        }
+                    });
+                }
+                invokeAll(tasks);
+            }
+        };
+        pool.invoke(index);
+    }
+
+    @Override
+    public void remove(Book book) {
+        if (books.remove(book)) { shards.get(shardOf(book)).remove(book); }
+    }
+
+    @Override
+    public Map<Book, Integer> score(String query) {
+        if (books.size() >= threshold) { return pool.invoke(new ScoreShards(query, null, 0, shards.size())); }
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (SearchStrategy shard : shards) { scores.putAll(shard.score(query)); }
+        return scores;
+    }
+
+    /**
+     * Scores the books given with the shards that hold them, so it costs what those shards' own
+     * score(query, books) cost; in parallel if enough books are given.
+     */
+    @Override
+    public Map<Book, Integer> score(String query, Collection<Book> given) {
+        List<List<Book>> byShard = new ArrayList<List<Book>>();
+        for (int i = 0; i < shards.size(); i++) { byShard.add(new ArrayList<Book>()); }
+        for (Book book : given)
+            if (books.contains(book)) { byShard.get(shardOf(book)).add(book); }
+        if (given.size() >= threshold) { return pool.invoke(new ScoreShards(query, byShard, 0, shards.size())); }
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (int i = 0; i < shards.size(); i++)
+            if (!byShard.get(i).isEmpty()) { scores.putAll(shards.get(i).score(query, byShard.get(i))); }
+        return scores;
+    }
+
+    /**
+     * Scores the shards in [from, to), splitting the range in half until it is a single shard: all of
+     * each shard's books, or only byShard's list for it if byShard is not null.
+     */
+    private class ScoreShards extends RecursiveTask<Map<Book, Integer>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String query;
+        private final List<List<Book>> byShard;
+        private final int from;
+        private final int to;
+
+        ScoreShards(String query, List<List<Book>> byShard, int from, int to) {
+            this.query = query;
+            this.byShard = byShard;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Book, Integer> compute() {
+            if (to - from == 1) {
+                if (byShard == null) { return shards.get(from).score(query); }
+                if (byShard.get(from).isEmpty()) { return new HashMap<Book, Integer>(); }
+                return shards.get(from).score(query, byShard.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            ScoreShards left = new ScoreShards(query, byShard, from, middle);
+            left.fork();
+            Map<Book, Integer> right = new ScoreShards(query, byShard, middle, to).compute();
+            Map<Book, Integer> merged = left.join();
+            // shards are disjoint, so merging is a union; copy the smaller map into the larger
+            if (merged.size() < right.size()) {
+                Map<Book, Integer> swap = merged;
+                merged = right;
+                right = swap;
+            }
+            merged.putAll(right);
+            return merged;
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -35,21 +35,28 @@ public class SmallLibrary implements Library {
     public SmallLibrary() {
         this.inLibrary = new HashSet<BookCopy>();
         this.checkedOut = new HashSet<BookCopy>();
-        checkRep();
+        assert checkAll();
     }
     
-    // assert the rep invariant
-    private void checkRep() {
+    // assert the rep invariant for copy, and now and then (see RepAudit) for the whole rep
+    private void checkRep(BookCopy copy) {
+        assert !(inLibrary.contains(copy) && checkedOut.contains(copy));
+        assert !RepAudit.sample(inLibrary.size() + checkedOut.size()) || checkAll();
+    }
+    
+    // assert the whole rep invariant; return true so it can be called from an assert
+    private boolean checkAll() {
         for (BookCopy copy: inLibrary) {
             assert !(checkedOut.contains(copy));
         }
+        return true;
     }
 
     @Override
     public BookCopy buy(Book book) {
         BookCopy copy = new BookCopy(book);
         inLibrary.add(copy);
-        checkRep();
+        checkRep(copy);
         return copy;
     }
     
@@ -57,14 +64,14 @@ public class SmallLibrary implements Library {
     public void checkout(BookCopy copy) {
         inLibrary.remove(copy);
         checkedOut.add(copy);
-        checkRep();
+        checkRep(copy);
     }
     
     @Override
     public void checkin(BookCopy copy) {
         checkedOut.remove(copy);
         inLibrary.add(copy);
-        checkRep();
+        checkRep(copy);
     }
     
     @Override
@@ -96,12 +103,12 @@ public class SmallLibrary implements Library {
         for (BookCopy copy: inLibrary) {
             Book tempBook = copy.getBook();
             if (tempBook.getTitle().equals(query)) { bookSet.add(tempBook); }
-            else if (tempBook.getAuthors().contains(query)) { bookSet.add(tempBook); }
+            else if (tempBook.hasAuthor(query)) { bookSet.add(tempBook); }
         }
         for (BookCopy copy: checkedOut) {
             Book tempBook = copy.getBook();
             if (tempBook.getTitle().equals(query)) { bookSet.add(tempBook); }
-            else if (tempBook.getAuthors().contains(query)) { bookSet.add(tempBook); }
+            else if (tempBook.hasAuthor(query)) { bookSet.add(tempBook); }
         }
         return new ArrayList<Book>(bookSet);
         
@@ -0,0 +1,85 @@
+package library;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SubstringMatchEngine is the reference MatchEngine: it scores every book with the dynamic-programming
+ * longest common substring algorithm on each query.  It is linear in the number of books and is kept
+ * as the baseline that faster engines are tested against.
+ */
+public class SubstringMatchEngine implements MatchEngine {
+
+    private final Set<Book> books;
+
+    // rep invariant:
+    //    true.
+    // abstraction function:
+    //    represents the set of books books.
+    // safety from rep exposure:
+    //    books is private and final, and never returned.
+
+    public SubstringMatchEngine() {
+        this.books = new HashSet<Book>();
+    }
+
+    @Override
+    public void add(Book book) {
+        books.add(book);
+    }
+
+    @Override
+    public void remove(Book book) {
+        books.remove(book);
+    }
+
+    @Override
+    public Map<Book, Integer> match(String query, int minLength) {
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (Book book : books) {
+            int length = longestSubstr(query, book.searchKey());
+            if (length >= minLength) { scores.put(book, length); }
+        }
+        return scores;
+    }
+
+    //Code used from http://stackoverflow.com/questions/17150311/
+    //java-implementation-for-longest-common-substring-of-n-strings this is a lazy implementation w/o Tries
+    //but assuming short strings should have less overhead.
+    static int longestSubstr(String first, String second) {
+        if (first == null || second == null || first.length() == 0 || second.length() == 0) {
+            return 0;
+        }
+
+        int maxLen = 0;
+        int fl = first.length();
+        int sl = second.length();
+        int[][] table = new int[fl][sl];
+
+        for (int i = 0; i < fl; i++) {
+            for (int j = 0; j < sl; j++) {
+                if (first.charAt(i) == second.charAt(j)) {
+                    if (i == 0 || j == 0) {
+                        table[i][j] = 1;
+                    }
+                    else {
+                        table[i][j] = table[i - 1][j - 1] + 1;
+                    }
+                    if (table[i][j] > maxLen) {
+                        maxLen = table[i][j];
+                    }
+                }
+            }
+        }
+        return maxLen;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
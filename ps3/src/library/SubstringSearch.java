@@ -0,0 +1,81 @@
+package library;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SubstringSearch is the SearchStrategy of BigLibrary's original find(): a book matches a query if
+ * its lower-cased title and authors share a substring of at least query.length() - 2 characters with
+ * the lower-cased query, and its score is the length of the longest such substring.
+ */
+public class SubstringSearch implements SearchStrategy {
+
+    private final MatchEngine engine;
+
+    // rep invariant:
+    //    true (engine maintains its own invariant).
+    // abstraction function:
+    //    represents the set of books in engine.
+    // safety from rep exposure:
+    //    engine is private and final, and never returned.
+
+    /**
+     * Make an empty SubstringSearch backed by a suffix automaton.
+     */
+    public SubstringSearch() {
+        this(new SuffixAutomatonEngine());
+    }
+
+    /**
+     * Make an empty SubstringSearch.
+     * @param engine empty MatchEngine that finds the common substrings; it becomes part of this
+     *    strategy's rep and must not be used by the client afterwards.
+     */
+    public SubstringSearch(MatchEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void add(Book book) {
+        engine.add(book);
+    }
+
+    @Override
+    public void addAll(Collection<Book> books) {
+        engine.addAll(books);
+    }
+
+    @Override
+    public void remove(Book book) {
+        engine.remove(book);
+    }
+
+    @Override
+    public Map<Book, Integer> score(String query) {
+        query = query.toLowerCase();
+        return engine.match(query, query.length() - 2);
+    }
+
+    /**
+     * Scores each of the books given directly, without the engine, in time proportional to their number.
+     */
+    @Override
+    public Map<Book, Integer> score(String query, Collection<Book> books) {
+        query = query.toLowerCase();
+        int minLength = query.length() - 2;
+        Map<Book, Integer> scores = new HashMap<Book, Integer>();
+        for (Book book : books) {
+            int length = Substrings.longestCommon(query, book.searchKey(), minLength);
+            if (length >= minLength) { scores.put(book, length); }
+        }
+        return scores;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
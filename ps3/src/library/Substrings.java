@@ -0,0 +1,70 @@
+package library;
+
+import java.util.Arrays;
+
+/**
+ * Substrings holds the allocation-free longest-common-substring kernel used to score books in find().
+ */
+final class Substrings {
+
+    // per-thread DP row, grown as needed and reused across calls
+    private static final ThreadLocal<int[]> SCRATCH = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() { return new int[64]; }
+    };
+
+    private Substrings() {
+        throw new AssertionError("not instantiable");
+    }
+
+    /**
+     * Find the length of the longest common substring of two strings, giving up early once it cannot
+     * reach minLength.  Does not allocate once the calling thread's scratch row is large enough.
+     * @param first a string, usually the shorter (e.g. the query)
+     * @param second a string
+     * @param minLength shortest length of interest
+     * @return the length of the longest common substring of first and second if it is at least
+     *    minLength; otherwise some value less than minLength
+     */
+    static int longestCommon(CharSequence first, CharSequence second, int minLength) {
+        int fl = first.length();
+        int sl = second.length();
+        if (fl == 0 || sl == 0 || Math.min(fl, sl) < minLength) { return 0; }
+        int[] row = SCRATCH.get();
+        if (row.length < sl) {
+            row = new int[Math.max(sl, row.length * 2)];
+            SCRATCH.set(row);
+        }
+        Arrays.fill(row, 0, sl, 0);
+        int bound = Math.min(fl, sl);
+        int maxLen = 0;
+        for (int i = 0; i < fl; i++) {
+            char c = first.charAt(i);
+            int rowMax = 0;
+            // walk right to left so row[j - 1] still holds the previous row's value
+            for (int j = sl - 1; j >= 0; j--) {
+                if (c == second.charAt(j)) {
+                    int run = (j == 0) ? 1 : row[j - 1] + 1;
+                    row[j] = run;
+                    if (run > rowMax) { rowMax = run; }
+                } else {
+                    row[j] = 0;
+                }
+            }
+            if (rowMax > maxLen) {
+                maxLen = rowMax;
+                if (maxLen == bound) { return maxLen; }
+            }
+            // no run, old or new, can grow by more than the characters left in first
+            if (maxLen < minLength && rowMax + (fl - 1 - i) < minLength) { return maxLen; }
+        }
+        return maxLen;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
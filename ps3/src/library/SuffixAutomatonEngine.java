@@ -0,0 +1,360 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SuffixAutomatonEngine is a MatchEngine backed by a generalized suffix automaton over the searchable
+ * text of every book.  A query is answered by walking the query through the automaton once, so the
+ * cost is proportional to the length of the query plus the number of (state, book) pairs reported,
+ * independent of the number of books that do not match.
+ *
+ * Removed books are left in the automaton as tombstones and filtered out of results; the automaton
+ * is rebuilt from the live books once tombstones outnumber them.
+ */
+public class SuffixAutomatonEngine implements MatchEngine {
+
+    private static final int INITIAL_STATES = 16;
+
+    // automaton states, indexed 0 .. states - 1.  State 0 is the root.
+    private int states;
+    private int[] len;
+    private int[] link;
+    private char[][] edgeChars;
+    private int[][] edgeTargets;
+    private int[] edgeCount;
+    private int[][] stateBooks;
+    private int[] stateBookCount;
+
+    // books, indexed by the id they were given when added.
+    private final Map<Book, Integer> ids;
+    private final List<Book> books;
+    private boolean[] dead;
+    private int deadCount;
+
+    // rep invariant:
+    //    len[0] == 0 and link[0] == -1; for every other state s, 0 <= link[s] < states and
+    //      len[link[s]] < len[s].
+    //    edgeChars[s][0 .. edgeCount[s]) are distinct, and edgeTargets[s][i] is the state reached
+    //      from s on edgeChars[s][i].
+    //    stateBooks[s][0 .. stateBookCount[s]) are the distinct ids of the books whose key contains
+    //      the strings of state s.
+    //    books.get(id) is the book with that id; ids maps every live book to
+    //      its id, and dead[id] iff books.get(id) has been removed.  deadCount counts the true dead[id].
+    // abstraction function:
+    //    represents the set of books ids.keySet(); the automaton recognizes every substring of
+    //      the keys of books 0 .. books.size() - 1.
+    // safety from rep exposure:
+    //    all fields are private and never returned; match() returns a fresh map.  The Scratch of a
+    //    thread is private to this class and only used during a call to match().
+
+    public SuffixAutomatonEngine() {
+        this.ids = new HashMap<Book, Integer>();
+        this.books = new ArrayList<Book>();
+        clear();
+    }
+
+    // reset the automaton to just the root, forgetting all books
+    private void clear() {
+        ids.clear();
+        books.clear();
+        dead = new boolean[INITIAL_STATES];
+        deadCount = 0;
+        states = 0;
+        len = new int[INITIAL_STATES];
+        link = new int[INITIAL_STATES];
+        edgeChars = new char[INITIAL_STATES][];
+        edgeTargets = new int[INITIAL_STATES][];
+        edgeCount = new int[INITIAL_STATES];
+        stateBooks = new int[INITIAL_STATES][];
+        stateBookCount = new int[INITIAL_STATES];
+        newState(0, -1);
+    }
+
+    @Override
+    public void add(Book book) {
+        if (ids.containsKey(book)) { return; }
+        int id = books.size();
+        ids.put(book, id);
+        books.add(book);
+        if (id == dead.length) { dead = Arrays.copyOf(dead, id * 2); }
+        insert(book.searchKey(), id);
+    }
+
+    @Override
+    public void remove(Book book) {
+        Integer id = ids.remove(book);
+        if (id == null) { return; }
+        dead[id] = true;
+        deadCount++;
+        if (deadCount > ids.size()) { rebuild(); }
+    }
+
+    // rebuild the automaton from the live books only
+    private void rebuild() {
+        List<Book> live = new ArrayList<Book>();
+        for (int id = 0; id < books.size(); id++)
+            if (!dead[id]) { live.add(books.get(id)); }
+        clear();
+        for (Book book : live) { add(book); }
+    }
+
+    /**
+     * Same spec as MatchEngine.match().  Apart from the map it returns, it allocates nothing once the
+     * calling thread's scratch arrays (see Scratch) have grown to this automaton's size, and it is safe
+     * to call from several threads at once as long as no thread adds or removes books meanwhile.
+     */
+    @Override
+    public Map<Book, Integer> match(String query, int minLength) {
+        if (minLength <= 0) {
+            Map<Book, Integer> scores = new HashMap<Book, Integer>();
+            for (Book book : ids.keySet()) { scores.put(book, 0); }
+            Map<Book, Integer> matched = match(query, 1);
+            scores.putAll(matched);
+            return scores;
+        }
+        Scratch scratch = Scratch.get(states, books.size());
+        scratch.begin();
+        // best match length reached in each state while walking the query
+        int state = 0;
+        int length = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            while (state != 0 && next(state, c) < 0) {
+                state = link[state];
+                length = len[state];
+            }
+            int target = next(state, c);
+            if (target < 0) { continue; }
+            state = target;
+            length++;
+            if (length >= minLength) { scratch.raiseState(state, length); }
+        }
+        // every suffix-link ancestor of a matched state matched its full length too
+        int matchedStates = scratch.stateCount;
+        for (int m = 0; m < matchedStates; m++) {
+            for (int s = link[scratch.states[m]]; s > 0 && len[s] >= minLength && scratch.walk(s); s = link[s]) {
+                scratch.raiseState(s, len[s]);
+            }
+        }
+        for (int m = 0; m < scratch.stateCount; m++) {
+            int s = scratch.states[m];
+            int score = scratch.stateBest[s];
+            for (int i = 0; i < stateBookCount[s]; i++) {
+                int id = stateBooks[s][i];
+                if (!dead[id]) { scratch.raiseBook(id, score); }
+            }
+        }
+        Map<Book, Integer> scores = new HashMap<Book, Integer>(scratch.bookCount * 4 / 3 + 1);
+        for (int m = 0; m < scratch.bookCount; m++) {
+            int id = scratch.books[m];
+            scores.put(books.get(id), scratch.bookBest[id]);
+        }
+        return scores;
+    }
+
+    /**
+     * Scratch is one thread's working memory for match(): the best length reached in each state and
+     * the best score of each book, with the lists of states and books touched.  Entries are valid only
+     * if stamped with the current query number, so nothing needs clearing between queries.  One
+     * Scratch per thread is shared by every SuffixAutomatonEngine, growing to the largest.
+     */
+    private static final class Scratch {
+
+        private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+            @Override
+            protected Scratch initialValue() { return new Scratch(); }
+        };
+
+        int query;
+        int[] stateStamp = new int[INITIAL_STATES];
+        int[] walkStamp = new int[INITIAL_STATES];
+        int[] stateBest = new int[INITIAL_STATES];
+        int[] states = new int[INITIAL_STATES];
+        int stateCount;
+        int[] bookStamp = new int[INITIAL_STATES];
+        int[] bookBest = new int[INITIAL_STATES];
+        int[] books = new int[INITIAL_STATES];
+        int bookCount;
+
+        // return the calling thread's Scratch, with room for the given numbers of states and books
+        static Scratch get(int stateCapacity, int bookCapacity) {
+            Scratch scratch = SCRATCH.get();
+            if (scratch.stateStamp.length < stateCapacity) {
+                int capacity = Math.max(stateCapacity, 2 * scratch.stateStamp.length);
+                scratch.stateStamp = Arrays.copyOf(scratch.stateStamp, capacity);
+                scratch.walkStamp = Arrays.copyOf(scratch.walkStamp, capacity);
+                scratch.stateBest = new int[capacity];
+                scratch.states = new int[capacity];
+            }
+            if (scratch.bookStamp.length < bookCapacity) {
+                int capacity = Math.max(bookCapacity, 2 * scratch.bookStamp.length);
+                scratch.bookStamp = Arrays.copyOf(scratch.bookStamp, capacity);
+                scratch.bookBest = new int[capacity];
+                scratch.books = new int[capacity];
+            }
+            return scratch;
+        }
+
+        // start a new query
+        void begin() {
+            query++;
+            if (query == 0) {
+                // the stamps wrapped around: clear them so no stale stamp equals a new query number
+                Arrays.fill(stateStamp, 0);
+                Arrays.fill(walkStamp, 0);
+                Arrays.fill(bookStamp, 0);
+                query = 1;
+            }
+            stateCount = 0;
+            bookCount = 0;
+        }
+
+        void raiseState(int s, int length) {
+            if (stateStamp[s] != query) {
+                stateStamp[s] = query;
+                stateBest[s] = length;
+                states[stateCount++] = s;
+            } else if (stateBest[s] < length) {
+                stateBest[s] = length;
+            }
+        }
+
+        // return true iff s has not been walked in this query, marking it walked
+        boolean walk(int s) {
+            if (walkStamp[s] == query) { return false; }
+            walkStamp[s] = query;
+            return true;
+        }
+
+        void raiseBook(int id, int score) {
+            if (bookStamp[id] != query) {
+                bookStamp[id] = query;
+                bookBest[id] = score;
+                books[bookCount++] = id;
+            } else if (bookBest[id] < score) {
+                bookBest[id] = score;
+            }
+        }
+    }
+
+    // add key, with book id, to the automaton
+    private void insert(String key, int id) {
+        int[] prefixes = new int[key.length()];
+        int last = 0;
+        for (int i = 0; i < key.length(); i++) {
+            last = extend(last, key.charAt(i));
+            prefixes[i] = last;
+        }
+        for (int prefix : prefixes) {
+            for (int s = prefix; s > 0 && !hasBook(s, id); s = link[s]) { addBook(s, id); }
+        }
+    }
+
+    // extend the automaton by one character from state last; return the state of the new prefix
+    private int extend(int last, char c) {
+        int existing = next(last, c);
+        if (existing >= 0) {
+            if (len[existing] == len[last] + 1) { return existing; }
+            return split(last, c, existing);
+        }
+        int cur = newState(len[last] + 1, 0);
+        int p = last;
+        while (p >= 0 && next(p, c) < 0) {
+            setNext(p, c, cur);
+            p = link[p];
+        }
+        if (p >= 0) {
+            int q = next(p, c);
+            // split() may grow the arrays, so it must run before link is indexed
+            int suffix = (len[p] + 1 == len[q]) ? q : split(p, c, q);
+            link[cur] = suffix;
+        }
+        return cur;
+    }
+
+    // clone state q so that the state reached from p on c has length len[p] + 1; return the clone
+    private int split(int p, char c, int q) {
+        int clone = newState(len[p] + 1, link[q]);
+        edgeChars[clone] = Arrays.copyOf(edgeChars[q], edgeChars[q].length);
+        edgeTargets[clone] = Arrays.copyOf(edgeTargets[q], edgeTargets[q].length);
+        edgeCount[clone] = edgeCount[q];
+        stateBooks[clone] = Arrays.copyOf(stateBooks[q], stateBooks[q].length);
+        stateBookCount[clone] = stateBookCount[q];
+        link[q] = clone;
+        while (p >= 0 && next(p, c) == q) {
+            setNext(p, c, clone);
+            p = link[p];
+        }
+        return clone;
+    }
+
+    private int newState(int length, int suffixLink) {
+        if (states == len.length) {
+            int capacity = states * 2;
+            len = Arrays.copyOf(len, capacity);
+            link = Arrays.copyOf(link, capacity);
+            edgeChars = Arrays.copyOf(edgeChars, capacity);
+            edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+            edgeCount = Arrays.copyOf(edgeCount, capacity);
+            stateBooks = Arrays.copyOf(stateBooks, capacity);
+            stateBookCount = Arrays.copyOf(stateBookCount, capacity);
+        }
+        int s = states++;
+        len[s] = length;
+        link[s] = suffixLink;
+        edgeChars[s] = new char[2];
+        edgeTargets[s] = new int[2];
+        edgeCount[s] = 0;
+        stateBooks[s] = new int[1];
+        stateBookCount[s] = 0;
+        return s;
+    }
+
+    // return the state reached from s on c, or -1 if there is none
+    private int next(int s, char c) {
+        char[] chars = edgeChars[s];
+        for (int i = 0; i < edgeCount[s]; i++)
+            if (chars[i] == c) { return edgeTargets[s][i]; }
+        return -1;
+    }
+
+    private void setNext(int s, char c, int target) {
+        char[] chars = edgeChars[s];
+        for (int i = 0; i < edgeCount[s]; i++) {
+            if (chars[i] == c) {
+                edgeTargets[s][i] = target;
+                return;
+            }
+        }
+        if (edgeCount[s] == chars.length) {
+            edgeChars[s] = Arrays.copyOf(chars, chars.length * 2);
+            edgeTargets[s] = Arrays.copyOf(edgeTargets[s], chars.length * 2);
+        }
+        edgeChars[s][edgeCount[s]] = c;
+        edgeTargets[s][edgeCount[s]] = target;
+        edgeCount[s]++;
+    }
+
+    // books are only ever added to a state in increasing id order, so the last one is the newest
+    private boolean hasBook(int s, int id) {
+        return stateBookCount[s] > 0 && stateBooks[s][stateBookCount[s] - 1] == id;
+    }
+
+    private void addBook(int s, int id) {
+        if (stateBookCount[s] == stateBooks[s].length) {
+            stateBooks[s] = Arrays.copyOf(stateBooks[s], stateBooks[s].length * 2);
+        }
+        stateBooks[s][stateBookCount[s]++] = id;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,56 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tokens splits searchable text into words: maximal runs of letters and digits, lower-cased.  Text
+ * with no letter or digit but some other visible character, such as a title "???", is one word: the
+ * whole text, trimmed and lower-cased, so that a book can still be found by every title and author.
+ */
+final class Tokens {
+
+    private Tokens() {
+        throw new AssertionError("not instantiable");
+    }
+
+    /**
+     * @param text any text
+     * @return the words of text, lower-cased, in order, with repeats; if there are none, the one word
+     *    text.trim().toLowerCase(), unless that is empty
+     */
+    static List<String> of(String text) {
+        List<String> words = new ArrayList<String>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) { start = i; }
+            else if (!inWord && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        if (words.isEmpty() && !text.trim().isEmpty()) { words.add(text.trim().toLowerCase()); }
+        return words;
+    }
+
+    /**
+     * @param book a book
+     * @return the distinct words of book's title and of each of its authors, lower-cased, in order
+     *    of first appearance
+     */
+    static Set<String> of(Book book) {
+        Set<String> words = new LinkedHashSet<String>(of(book.getTitle()));
+        for (String author : book.getAuthors()) { words.addAll(of(author)); }
+        return words;
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,109 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test suite for BKTree and its edit distance.
+ */
+public class BKTreeTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * distance():
+     *  empty strings. identical strings. one insertion, deletion, substitution. completely different.
+     * match():
+     *  empty tree. exact match only (maxEdits 0). several words within maxEdits at different distances.
+     *  word added twice and removed once stays; removed words (tombstones, rebuild) are not reported.
+     *  random words agree with a linear scan.
+     */
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, BKTree.distance("", ""));
+        assertEquals(3, BKTree.distance("", "abc"));
+        assertEquals(0, BKTree.distance("tolkien", "tolkien"));
+        assertEquals(2, BKTree.distance("tolkein", "tolkien"));
+        assertEquals(1, BKTree.distance("tolkin", "tolkien"));
+        assertEquals(1, BKTree.distance("tollkien", "tolkien"));
+        assertEquals(1, BKTree.distance("tolkian", "tolkien"));
+        assertEquals(3, BKTree.distance("abc", "xyz"));
+    }
+
+    @Test
+    public void testMatch() {
+        BKTree tree = new BKTree();
+        assertTrue(tree.match("tolkien", 2).isEmpty());
+        for (String word : new String[] { "tolkien", "tolkin", "token", "rowling", "austen" }) { tree.add(word); }
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        expected.put("tolkien", 0);
+        assertEquals(expected, tree.match("tolkien", 0));
+        expected.put("tolkin", 1);
+        expected.put("token", 2);
+        assertEquals(expected, tree.match("tolkien", 2));
+    }
+
+    @Test
+    public void testRemove() {
+        BKTree tree = new BKTree();
+        tree.add("tolkien");
+        tree.add("tolkien");
+        tree.add("token");
+        tree.remove("tolkien");
+        tree.remove("missing");
+        assertTrue(tree.match("tolkien", 0).containsKey("tolkien"));
+        tree.remove("tolkien");
+        assertFalse(tree.match("tolkien", 0).containsKey("tolkien"));
+        assertTrue(tree.match("tolkien", 2).containsKey("token"));
+        tree.remove("token");
+        assertTrue(tree.match("tolkien", 2).isEmpty());
+        tree.add("token");
+        assertEquals(1, tree.match("tolkien", 2).size());
+    }
+
+    @Test
+    public void testRandomAgainstScan() {
+        Random random = new Random(6005);
+        BKTree tree = new BKTree();
+        List<String> words = new ArrayList<String>();
+        for (int i = 0; i < 500; i++) {
+            String word = randomWord(random);
+            words.add(word);
+            tree.add(word);
+        }
+        for (int i = 0; i < 300; i++) { tree.remove(words.remove(random.nextInt(words.size()))); }
+        for (int i = 0; i < 100; i++) {
+            String query = randomWord(random);
+            int maxEdits = random.nextInt(3);
+            Map<String, Integer> expected = new HashMap<String, Integer>();
+            for (String word : words) {
+                int d = BKTree.distance(query, word);
+                if (d <= maxEdits) { expected.put(word, d); }
+            }
+            assertEquals("Matches differ for " + query, expected, tree.match(query, maxEdits));
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) { word.append((char) ('a' + random.nextInt(4))); }
+        return word.toString();
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,78 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test suite for BigLibrary's buyAll() bulk import, and for how buy() and buyAll() share Book objects.
+ */
+public class BigLibraryBuyTest {
+
+    /*
+     * NOTE: tests of the Library operations themselves belong in LibraryTest.java, and tests of
+     * BigLibrary.find()'s stronger spec in BigLibraryTest.java.
+     */
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * buy()/buyAll() of a book equal to one held share the held Book object.
+     * buyAll(): empty list. new books, books already held, the same book several times; free ids reused.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+    private final Book aNormalBook = new Book("ANormal Book", Arrays.asList("Normal Author"), 1992);
+    private final Book newerNormalBook = new Book("Normal Book", Arrays.asList("normal author"), 1995);
+
+    @Test
+    public void testBuySharesHeldBook() {
+        BigLibrary library = new BigLibrary();
+        BookCopy first = library.buy(normalBook);
+        BookCopy second = library.buy(new Book("Normal Book", Arrays.asList("Normal Author"), 1992));
+        BookCopy third = library.buyAll(Arrays.asList(new Book("Normal Book", Arrays.asList("Normal Author"), 1992))).get(0);
+        assertSame(first.getBook(), second.getBook());
+        assertSame(first.getBook(), third.getBook());
+    }
+
+    @Test
+    public void testBuyAllEmpty() {
+        BigLibrary library = new BigLibrary();
+        assertEquals(Collections.emptyList(), library.buyAll(Collections.<Book>emptyList()));
+        assertEquals(Collections.emptyList(), library.find("Normal Book"));
+    }
+
+    @Test
+    public void testBuyAll() {
+        BigLibrary library = new BigLibrary();
+        BookCopy held = library.buy(normalBook);
+        library.checkout(held);
+        library.lose(library.buy(aNormalBook));
+        List<BookCopy> copies = library.buyAll(Arrays.asList(normalBook, newerNormalBook, normalBook, aNormalBook));
+        assertEquals(4, copies.size());
+        assertEquals(normalBook, copies.get(0).getBook());
+        assertEquals(newerNormalBook, copies.get(1).getBook());
+        assertEquals(3, library.allCopies(normalBook).size());
+        assertEquals(2, library.availableCopies(normalBook).size());
+        assertFalse("Copy held before buyAll must stay checked out", library.isAvailable(held));
+        for (BookCopy copy : copies) { assertTrue(library.isAvailable(copy)); }
+        assertEquals(Arrays.asList(newerNormalBook, aNormalBook, normalBook), library.find("Normal Book"));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -3,10 +3,14 @@ package library;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -26,6 +30,19 @@ public class BigLibraryTest {
      * Longer substring match goes first.
      * Same length substring match gives list in alpha order if same year.
      * Test that find is case insensitive.
+     * Index maintenance: book found after buy, not found after its last copy is lost.
+     * Short queries (shorter than the index n-gram) still match.
+     * find(query, limit): limit below, equal to and above the number of matches; same order as find().
+     * findCursor(): pages concatenate to find(); last page may be short; no page after the last.
+     * query cache: repeated query hits, also in another case; buying a new book or losing a book's
+     *   last copy invalidates; buying another copy, checkout and checkin do not; capacity 0 never hits.
+     * findFuzzy(): exact words, words with typos in title and author, beyond maxEdits, maxEdits 0;
+     *   more query words matched ranks first; after the last copy is lost.
+     * find(query, facets): Facets.ANY same as find(); year range including, excluding and bounding
+     *   books; empty range; author exact (case-sensitive), unknown author; availability only, after
+     *   checkout, checkin and lose; facets combined; books matching facets but not the query.
+     *   a posting smaller than the collection scores only its books that satisfy the facets, with the
+     *   same results as filtering find(); a posting as large as the collection scores it all.
      * 
      */
     
@@ -93,6 +110,193 @@ public class BigLibraryTest {
         }
     }
 
+    @Test
+    public void testFindAfterLoseLastCopy() {
+        BigLibrary library = new BigLibrary();
+        BookCopy first = library.buy(normalBook);
+        BookCopy second = library.buy(normalBook);
+        library.lose(first);
+        assertTrue("Book with a remaining copy must be found", library.find(normalBook.getTitle()).contains(normalBook));
+        library.lose(second);
+        assertEquals("Book with no copies must not be found", Collections.emptyList(), library.find(normalBook.getTitle()));
+    }
+    
+    @Test
+    public void testFindShortQuery() {
+        Library library = new BigLibrary();
+        library.buy(normalBook);
+        assertTrue("Short query must still match" + normalBook.toString(), library.find("boo").contains(normalBook));
+        assertTrue("Two letter query must still match" + normalBook.toString(), library.find("No").contains(normalBook));
+    }
+    
+    private BigLibrary makeCatalog() {
+        BigLibrary library = new BigLibrary();
+        for (int year = 1990; year < 2000; year++) {
+            library.buy(new Book("Normal Book", Arrays.asList("Normal Author"), year));
+            library.buy(new Book("Normal Boo", Arrays.asList("Someone"), year));
+        }
+        return library;
+    }
+    
+    @Test
+    public void testFindLimit() {
+        BigLibrary library = makeCatalog();
+        List<Book> all = library.find("Normal Book");
+        assertEquals(20, all.size());
+        assertEquals(all.subList(0, 1), library.find("Normal Book", 1));
+        assertEquals(all.subList(0, 7), library.find("Normal Book", 7));
+        assertEquals(all, library.find("Normal Book", 20));
+        assertEquals(all, library.find("Normal Book", 100));
+        assertEquals(Collections.emptyList(), library.find("zzzzzz", 5));
+    }
+    
+    @Test
+    public void testFindCursor() {
+        BigLibrary library = makeCatalog();
+        List<Book> all = library.find("Normal Book");
+        SearchCursor cursor = library.findCursor("Normal Book", 6);
+        assertEquals(20, cursor.size());
+        List<Book> paged = new ArrayList<Book>();
+        int pages = 0;
+        while (cursor.hasNext()) {
+            List<Book> page = cursor.nextPage();
+            assertTrue("Page too big", page.size() <= 6);
+            paged.addAll(page);
+            pages++;
+        }
+        assertEquals(4, pages);
+        assertEquals(all, paged);
+    }
+    
+    @Test(expected=NoSuchElementException.class)
+    public void testFindCursorExhausted() {
+        BigLibrary library = new BigLibrary();
+        SearchCursor cursor = library.findCursor("Normal Book", 6);
+        assertFalse(cursor.hasNext());
+        cursor.nextPage();
+    }
+    
+    @Test
+    public void testQueryCache() {
+        BigLibrary library = new BigLibrary();
+        BookCopy copy = library.buy(normalBook);
+        assertEquals(Arrays.asList(normalBook), library.find("Normal Book"));
+        assertEquals(Arrays.asList(normalBook), library.find("Normal Book", 5));
+        assertEquals(1, library.cacheHits());
+        assertEquals(1, library.cacheMisses());
+        assertEquals(Arrays.asList(normalBook), library.find("nORMAL bOOK"));
+        assertEquals("queries differing in case share an entry", 2, library.cacheHits());
+        library.buy(normalBook);
+        library.checkout(copy);
+        library.checkin(copy);
+        assertEquals(Arrays.asList(normalBook), library.find("Normal Book"));
+        assertEquals(3, library.cacheHits());
+        library.buy(newerNormalBook);
+        assertEquals(Arrays.asList(newerNormalBook, normalBook), library.find("Normal Book"));
+        library.lose(library.allCopies(newerNormalBook).iterator().next());
+        assertEquals(Arrays.asList(normalBook), library.find("Normal Book"));
+        assertEquals(3, library.cacheHits());
+        assertEquals(3, library.cacheMisses());
+    }
+    
+    @Test
+    public void testQueryCacheOff() {
+        BigLibrary library = new BigLibrary(new SubstringSearch(), 0);
+        library.buy(normalBook);
+        library.find("Normal Book");
+        library.find("Normal Book");
+        assertEquals(0, library.cacheHits());
+        assertEquals(2, library.cacheMisses());
+    }
+    
+    @Test
+    public void testFindFuzzy() {
+        BigLibrary library = new BigLibrary();
+        Book hobbit = new Book("The Hobbit", Arrays.asList("J. R. R. Tolkien"), 1937);
+        Book rings = new Book("The Lord of the Rings", Arrays.asList("J. R. R. Tolkien"), 1954);
+        Book other = new Book("Pride and Prejudice", Arrays.asList("Jane Austen"), 1813);
+        library.buy(hobbit);
+        library.buy(rings);
+        BookCopy lost = library.buy(other);
+        assertEquals(Arrays.asList(rings, hobbit), library.findFuzzy("Tolkein", 2));
+        assertEquals(Collections.emptyList(), library.findFuzzy("Tolkein", 1));
+        assertEquals(Arrays.asList(rings, hobbit), library.findFuzzy("tolkien", 0));
+        assertEquals("More matched words rank first", Arrays.asList(hobbit, rings), library.findFuzzy("hobit tolkin", 1));
+        assertEquals(Arrays.asList(other), library.findFuzzy("Austin", 1));
+        library.lose(lost);
+        assertEquals(Collections.emptyList(), library.findFuzzy("Austin", 1));
+    }
+    
+    @Test
+    public void testFindFacets() {
+        BigLibrary library = new BigLibrary();
+        Book other = new Book("Other Book", Arrays.asList("Someone Else", "Normal Author"), 2001);
+        Book unrelated = new Book("Unrelated", Arrays.asList("Normal Author"), 1993);
+        library.buy(normalBook);
+        library.buy(aNormalBook);
+        BookCopy newer = library.buy(newerNormalBook);
+        library.buyAll(Arrays.asList(other, unrelated));
+        assertEquals(library.find("book"), library.find("book", Facets.ANY));
+        assertEquals(Arrays.asList(newerNormalBook, aNormalBook, normalBook),
+                library.find("book", Facets.ANY.years(1990, 1995)));
+        assertEquals(Arrays.asList(aNormalBook, normalBook), library.find("book", Facets.ANY.years(1992, 1992)));
+        assertEquals(Collections.emptyList(), library.find("book", Facets.ANY.years(1995, 1990)));
+        assertEquals(Arrays.asList(other, aNormalBook, normalBook),
+                library.find("book", Facets.ANY.author("Normal Author")));
+        assertEquals(Collections.emptyList(), library.find("book", Facets.ANY.author("nobody")));
+        assertEquals(Arrays.asList(other, aNormalBook, normalBook),
+                library.find("book", Facets.ANY.author("Normal Author").years(1992, 2001)));
+
+        library.checkout(newer);
+        assertEquals(Arrays.asList(other, aNormalBook, normalBook), library.find("book", Facets.ANY.availableOnly()));
+        library.checkin(newer);
+        assertEquals(Arrays.asList(newerNormalBook), library.find("book", Facets.ANY.availableOnly().years(1994, 1999)));
+        library.lose(newer);
+        assertEquals(Collections.emptyList(), library.find("book", Facets.ANY.availableOnly().years(1994, 1999)));
+        assertEquals(Facets.ANY.years(1, 2).author("A"), Facets.ANY.author("A").years(1, 2));
+    }
+    
+    @Test
+    public void testFindFacetsScoresPosting() {
+        final List<Integer> scored = new ArrayList<Integer>();
+        BigLibrary library = new BigLibrary(new SubstringSearch() {
+            @Override
+            public Map<Book, Integer> score(String query) {
+                scored.add(-1);
+                return super.score(query);
+            }
+
+            @Override
+            public Map<Book, Integer> score(String query, Collection<Book> books) {
+                scored.add(books.size());
+                return super.score(query, books);
+            }
+        }, 0);
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 50; i++) {
+            books.add(new Book("Book " + i, Arrays.asList("Author " + (i % 10), "Everyone"), 1950 + i));
+        }
+        library.buyAll(books);
+        library.checkout(library.allCopies(books.get(13)).iterator().next());
+
+        Facets byAuthor = Facets.ANY.author("Author 3").availableOnly();
+        List<Book> expected = new ArrayList<Book>();
+        for (Book book : library.find("book 3")) {
+            if (book.hasAuthor("Author 3") && !book.equals(books.get(13))) { expected.add(book); }
+        }
+        scored.clear();
+        assertEquals(expected, library.find("book 3", byAuthor));
+        assertEquals("scores only available books by Author 3", Arrays.asList(4), scored);
+
+        scored.clear();
+        assertEquals(Arrays.asList(books.get(31), books.get(30)), library.find("BOOK 3", Facets.ANY.years(1980, 1981)));
+        assertEquals(Arrays.asList(2), scored);
+
+        scored.clear();
+        assertEquals(library.find("book 3"), library.find("book 3", Facets.ANY.author("Everyone")));
+        assertEquals("posting is the whole collection", Arrays.asList(-1, -1), scored);
+    }
+
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
         assert false; // make sure assertions are enabled with VM argument: -ea
@@ -0,0 +1,165 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the BM25 SearchStrategy.
+ */
+public class Bm25SearchTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * score():
+     *  empty index. query with no known word. exact title and author (Library.find() requirement).
+     *  rare word outscores common word. same word in a shorter book outscores a longer one.
+     *  more query words matched scores higher. case and punctuation ignored. repeated query words.
+     *  same title and authors, different year: same score.  title and author with no letter or digit,
+     *  found by themselves but not by other punctuation, nor by a query that also has words.
+     * score(query, books):
+     *  same scores as score(query) for the books given; books not indexed or not matching left out;
+     *  query with no known word.
+     * add()/remove():
+     *  adding twice. removing missing book. removing most books (forces a rebuild); re-adding a book.
+     *  many books, so ids and word counts need multi-byte varints.
+     */
+
+    private final Book hobbit = new Book("The Hobbit", Arrays.asList("J. R. R. Tolkien"), 1937);
+    private final Book rings = new Book("The Lord of the Rings", Arrays.asList("J. R. R. Tolkien"), 1954);
+    private final Book pride = new Book("Pride and Prejudice", Arrays.asList("Jane Austen"), 1813);
+    private final Book newerPride = new Book("Pride and Prejudice", Arrays.asList("Jane Austen"), 2003);
+
+    private static Bm25Search makeIndex(Book... books) {
+        Bm25Search index = new Bm25Search();
+        for (Book book : books) { index.add(book); }
+        return index;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new Bm25Search().score("hobbit").isEmpty());
+        assertTrue(makeIndex(hobbit).score("dragon").isEmpty());
+        assertTrue(makeIndex(hobbit).score("").isEmpty());
+    }
+
+    @Test
+    public void testExactTitleAndAuthor() {
+        Bm25Search index = makeIndex(hobbit, rings, pride);
+        assertTrue(index.score(hobbit.getTitle()).containsKey(hobbit));
+        assertTrue(index.score(pride.getAuthors().get(0)).containsKey(pride));
+        assertEquals(2, index.score("J. R. R. Tolkien").size());
+    }
+
+    @Test
+    public void testPunctuationOnly() {
+        Book marks = new Book("???", Arrays.asList("\u2014"), 2000);
+        BigLibrary library = new BigLibrary(new Bm25Search());
+        library.buy(marks);
+        library.buy(hobbit);
+        assertEquals(Arrays.asList(marks), library.find(marks.getTitle()));
+        assertEquals(Arrays.asList(marks), library.find(" " + marks.getAuthors().get(0) + " "));
+        assertTrue(library.find("!!!").isEmpty());
+        // a query with words drops its punctuation, as titles and authors with words do
+        assertEquals(Arrays.asList(hobbit), library.find("the ??? hobbit"));
+    }
+
+    @Test
+    public void testRareWordsAndShortBooksScoreHigher() {
+        Bm25Search index = makeIndex(hobbit, rings, pride);
+        Map<Book, Integer> scores = index.score("the hobbit");
+        assertTrue("rare word must outweigh common word", scores.get(hobbit) > scores.get(rings));
+        scores = index.score("tolkien");
+        assertTrue("shorter book must score higher", scores.get(hobbit) > scores.get(rings));
+        scores = index.score("PRIDE, and... prejudice prejudice");
+        assertEquals(1, scores.size());
+        assertTrue(scores.get(pride) > index.score("pride").get(pride));
+    }
+
+    @Test
+    public void testSameBookDifferentYear() {
+        Map<Book, Integer> scores = makeIndex(pride, newerPride, hobbit).score("pride");
+        assertEquals(scores.get(pride), scores.get(newerPride));
+    }
+
+    @Test
+    public void testAddRemove() {
+        Bm25Search index = makeIndex(hobbit, hobbit, rings);
+        index.remove(pride);
+        assertEquals(2, index.score("tolkien").size());
+        index.remove(rings);
+        assertEquals(Arrays.asList(hobbit), new ArrayList<Book>(index.score("tolkien").keySet()));
+        index.remove(hobbit);
+        assertTrue(index.score("tolkien").isEmpty());
+        index.add(rings);
+        assertEquals(1, index.score("lord").size());
+    }
+
+    @Test
+    public void testManyBooks() {
+        Bm25Search index = new Bm25Search();
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder title = new StringBuilder("Volume " + i);
+            for (int j = 0; j < i % 200; j++) { title.append(" echo"); }
+            Book book = new Book(title.toString(), Arrays.asList("Author " + (i % 10)), 2000);
+            books.add(book);
+            index.add(book);
+        }
+        for (int i = 0; i < 2000; i++) { index.remove(books.get(i)); }
+        assertEquals(1000, index.score("volume").size());
+        assertEquals(Arrays.asList(books.get(2500)), new ArrayList<Book>(index.score("2500").keySet()));
+        Map<Book, Integer> scores = index.score("echo");
+        assertTrue(scores.get(books.get(2199)) > scores.get(books.get(2001)));
+    }
+
+    @Test
+    public void testScoreSubset() {
+        Bm25Search index = new Bm25Search();
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder title = new StringBuilder("Volume " + (i % 7));
+            for (int j = 0; j < i % 5; j++) { title.append(" echo"); }
+            Book book = new Book(title.toString(), Arrays.asList("Author " + (i % 10)), 1900 + i);
+            books.add(book);
+            index.add(book);
+        }
+        for (int i = 0; i < 100; i++) { index.remove(books.get(i)); }
+        List<Book> subset = new ArrayList<Book>();
+        for (int i = 0; i < books.size(); i += 3) { subset.add(books.get(i)); }
+        for (String query : new String[] { "volume 3 echo", "author 4", "echo echo", "volume 6 author 6" }) {
+            Map<Book, Integer> all = index.score(query);
+            Map<Book, Integer> some = index.score(query, subset);
+            for (Book book : subset) { assertEquals(query + " " + book, all.get(book), some.get(book)); }
+            assertTrue(all.keySet().containsAll(some.keySet()));
+        }
+        assertFalse(index.score("volume", subset).containsKey(books.get(0)));
+        assertTrue(index.score("nothing", subset).isEmpty());
+    }
+
+    @Test
+    public void testBigLibraryStrategy() {
+        BigLibrary library = new BigLibrary(new Bm25Search());
+        library.buy(hobbit);
+        library.buy(rings);
+        library.buy(pride);
+        library.buy(newerPride);
+        assertEquals(Arrays.asList(hobbit, rings), library.find("Tolkien the Hobbit"));
+        assertEquals(Arrays.asList(newerPride, pride), library.find("Jane Austen"));
+        assertEquals(Arrays.asList(hobbit), library.find("tolkien", 1));
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,76 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test suite for BookTable.
+ */
+public class BookTableTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * get(): empty table. present book. absent book. equal but not identical book.
+     * put(): new book. existing book replaces value. enough books to resize.
+     * remove(): present book. absent book. books in the middle of a probe run.
+     * random sequences of operations agree with HashMap.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+
+    @Test
+    public void testGetPutRemove() {
+        BookTable<String> table = new BookTable<String>();
+        assertNull(table.get(normalBook));
+        table.put(normalBook, "a");
+        assertEquals("a", table.get(new Book("Normal Book", Arrays.asList("Normal Author"), 1992)));
+        table.put(normalBook, "b");
+        assertEquals("b", table.get(normalBook));
+        assertEquals(1, table.size());
+        table.remove(new Book("Other", Arrays.asList("Normal Author"), 1992));
+        assertEquals(1, table.size());
+        table.remove(normalBook);
+        assertNull(table.get(normalBook));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(6005);
+        BookTable<Integer> table = new BookTable<Integer>();
+        Map<Book, Integer> expected = new HashMap<Book, Integer>();
+        for (int step = 0; step < 20000; step++) {
+            Book book = new Book("Title " + random.nextInt(200), Arrays.asList("Author"), 1990);
+            if (random.nextInt(3) == 0) {
+                table.remove(book);
+                expected.remove(book);
+            } else {
+                table.put(book, step);
+                expected.put(book, step);
+            }
+            assertEquals(expected.size(), table.size());
+            Book probe = new Book("Title " + random.nextInt(200), Arrays.asList("Author"), 1990);
+            assertEquals(expected.get(probe), table.get(probe));
+        }
+        assertEquals(expected.keySet(), new HashSet<Book>(table.keys()));
+        for (Map.Entry<Book, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), table.get(entry.getKey()));
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -24,6 +24,9 @@ public class BookTest {
      * Ensure that the list of Authors is not mutated when passed to the object. Ensure that order is maintained.
      * Ensure that mutating the list from getAuthors does not effect the rep. (no rep exposure)
      * 
+     * equals/hashCode: equal books have equal hash codes; author case and order are significant.
+     * searchKey: lower-cased title, space, concatenated authors; same value on repeated calls.
+     * 
     */
     
     private final String badTitle = " ";
@@ -105,6 +108,24 @@ public class BookTest {
     }  
     
     
+    @Test
+    public void testEqualsHashCode() {
+        Book book = new Book(goodTitle, Arrays.asList("Fred", "Barney"), goodYear);
+        Book same = new Book(goodTitle, new ArrayList<String>(Arrays.asList("Fred", "Barney")), goodYear);
+        assertEquals("Equal books must be equal", book, same);
+        assertEquals("Equal books must have equal hash codes", book.hashCode(), same.hashCode());
+        assertFalse("Author case is significant", book.equals(new Book(goodTitle, Arrays.asList("FRED", "Barney"), goodYear)));
+        assertFalse("Author order is significant", book.equals(new Book(goodTitle, Arrays.asList("Barney", "Fred"), goodYear)));
+        assertFalse("Year is significant", book.equals(new Book(goodTitle, Arrays.asList("Fred", "Barney"), goodYear + 1)));
+    }
+    
+    @Test
+    public void testSearchKey() {
+        Book book = new Book("Normal Book", Arrays.asList("Fred", "Barney"), goodYear);
+        assertEquals("normal book fredbarney", book.searchKey());
+        assertSame("Search key should be cached", book.searchKey(), book.searchKey());
+    }  
+    
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
         assert false; // make sure assertions are enabled with VM argument: -ea
@@ -0,0 +1,58 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ChildProcess runs the main method of a test class in a separate JVM, so that a test can check what
+ * a persistent library leaves on disk once the JVM that wrote it has exited.
+ */
+final class ChildProcess {
+
+    private ChildProcess() {
+        throw new AssertionError("not instantiable");
+    }
+
+    /**
+     * Run mainClass.main(args) in a new JVM with this JVM's class path and assertions enabled, and
+     * wait for it to exit.
+     * @param mainClass class whose main method to run
+     * @param args arguments to main
+     * @throws AssertionError if the child JVM exits with a nonzero status
+     */
+    static void run(Class<?> mainClass, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<String>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.add("-ea");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        assertEquals("exit status of " + mainClass.getSimpleName(), 0, process.waitFor());
+    }
+
+    /**
+     * Delete a directory and the files in it.  Has no effect if it does not exist.
+     * @param directory directory with no subdirectories
+     */
+    static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) { file.delete(); }
+        }
+        directory.delete();
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,115 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test suite for ColumnarLibrary's flyweight copies and growth.
+ */
+public class ColumnarLibraryTest {
+
+    /*
+     * NOTE: tests of the Library spec run against ColumnarLibrary in LibraryTest.java.
+     */
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * Copy handles: returned by buy() vs. allCopies()/availableCopies(); equal, same hash code, same book,
+     *   which is the same Book object every time and is the one find() returns.
+     *   setCondition() through one handle seen through another; toString() of a damaged handle.
+     *   handle of a lost copy after more copies are bought; handles of another ColumnarLibrary.
+     * Growth: enough books, authors and copies to grow every column and the hash table; books
+     *   whose copies are all lost, then bought again.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+    private final Book otherBook = new Book("Other Title", Arrays.asList("Someone", "Else"), 2001);
+
+    @Test
+    public void testHandlesEqual() {
+        ColumnarLibrary library = new ColumnarLibrary();
+        BookCopy bought = library.buy(normalBook);
+        BookCopy other = library.buy(normalBook);
+        Set<BookCopy> all = library.allCopies(normalBook);
+        assertEquals(new HashSet<BookCopy>(Arrays.asList(bought, other)), all);
+        for (BookCopy copy : all) {
+            assertEquals(normalBook, copy.getBook());
+            if (copy.equals(bought)) { assertEquals(bought.hashCode(), copy.hashCode()); }
+        }
+        assertNotEquals(bought, other);
+        assertSame(bought.getBook(), other.getBook());
+        assertSame(bought.getBook(), library.find("normal book").get(0));
+        assertNotEquals("handles of another library", bought, new ColumnarLibrary().buy(normalBook));
+    }
+
+    @Test
+    public void testConditionThroughHandles() {
+        ColumnarLibrary library = new ColumnarLibrary();
+        BookCopy bought = library.buy(otherBook);
+        library.checkout(bought);
+        bought.setCondition(BookCopy.Condition.DAMAGED);
+        library.checkin(bought);
+        BookCopy found = library.availableCopies(otherBook).iterator().next();
+        assertEquals(BookCopy.Condition.DAMAGED, found.getCondition());
+        assertTrue(found.toString().contains("damaged"));
+        found.setCondition(BookCopy.Condition.GOOD);
+        assertEquals(BookCopy.Condition.GOOD, bought.getCondition());
+    }
+
+    @Test
+    public void testLostHandle() {
+        ColumnarLibrary library = new ColumnarLibrary();
+        BookCopy lost = library.buy(normalBook);
+        library.lose(lost);
+        BookCopy bought = library.buy(normalBook);
+        assertFalse(library.isAvailable(lost));
+        library.checkin(lost);
+        assertFalse(library.isAvailable(lost));
+        assertEquals(new HashSet<BookCopy>(Arrays.asList(bought)), library.allCopies(normalBook));
+        library.lose(lost);
+        assertTrue(library.isAvailable(bought));
+    }
+
+    @Test
+    public void testManyBooks() {
+        ColumnarLibrary library = new ColumnarLibrary();
+        List<Book> books = new ArrayList<Book>();
+        List<BookCopy> extras = new ArrayList<BookCopy>();
+        for (int i = 0; i < 2000; i++) {
+            Book book = new Book("Title " + i, Arrays.asList("Author " + (i % 7), "Editor " + i), 1900 + i % 100);
+            books.add(book);
+            library.buy(book);
+            if (i % 3 == 0) { extras.add(library.buy(book)); }
+        }
+        for (BookCopy copy : extras) { library.checkout(copy); }
+        for (int i = 0; i < books.size(); i++) {
+            assertEquals("copies of " + i, i % 3 == 0 ? 2 : 1, library.allCopies(books.get(i)).size());
+            assertEquals("available copies of " + i, 1, library.availableCopies(books.get(i)).size());
+        }
+        assertEquals(books.get(1234), library.find("title 1234").get(0));
+
+        Book gone = books.get(5);
+        for (BookCopy copy : library.allCopies(gone)) { library.lose(copy); }
+        assertTrue(library.allCopies(gone).isEmpty());
+        assertFalse(library.find("title 5").contains(gone));
+        library.buy(gone);
+        assertEquals(1, library.availableCopies(gone).size());
+        assertTrue(library.find("title 5").contains(gone));
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,106 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test suite for ConcurrentBigLibrary's thread safety.
+ */
+public class ConcurrentBigLibraryTest {
+
+    /*
+     * NOTE: tests of the Library spec run against ConcurrentBigLibrary in LibraryTest.java.
+     */
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * Several threads circulating copies of different books, and of the same book, at once.
+     * Several threads buying and losing the last copy of the same book while another thread runs find().
+     * After all threads finish, every copy is in exactly one state and counts add up.
+     */
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2000;
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+
+    @Test
+    public void testConcurrentCirculation() throws InterruptedException {
+        final ConcurrentBigLibrary library = new ConcurrentBigLibrary();
+        final List<BookCopy> copies = new ArrayList<BookCopy>();
+        for (int i = 0; i < THREADS; i++) {
+            copies.add(library.buy(new Book("Title " + i, Arrays.asList("Author"), 2000)));
+            copies.add(library.buy(normalBook));
+        }
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            final BookCopy own = copies.get(2 * i);
+            final BookCopy shared = copies.get(2 * i + 1);
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        library.checkout(own);
+                        library.checkout(shared);
+                        library.checkin(own);
+                        library.checkin(shared);
+                    }
+                }
+            }));
+        }
+        runAll(threads);
+        assertEquals("All copies should be back", THREADS, library.availableCopies(normalBook).size());
+        for (BookCopy copy : copies) { assertTrue("Copy should be available " + copy, library.isAvailable(copy)); }
+    }
+
+    @Test
+    public void testConcurrentBuyLoseFind() throws InterruptedException {
+        final ConcurrentBigLibrary library = new ConcurrentBigLibrary();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        BookCopy copy = library.buy(normalBook);
+                        library.checkout(copy);
+                        library.lose(copy);
+                    }
+                }
+            }));
+        }
+        threads.add(new Thread(new Runnable() {
+            public void run() {
+                for (int round = 0; round < ROUNDS; round++) {
+                    List<Book> books = library.find(normalBook.getTitle());
+                    assertTrue("find must not return duplicates", books.size() <= 1);
+                }
+            }
+        }));
+        runAll(threads);
+        assertEquals("No copies should remain", 0, library.allCopies(normalBook).size());
+        assertTrue("Lost book should not be found", library.find(normalBook.getTitle()).isEmpty());
+    }
+
+    private static void runAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) { thread.start(); }
+        for (Thread thread : threads) { thread.join(); }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
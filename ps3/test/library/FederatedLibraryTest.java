@@ -0,0 +1,122 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test suite for FederatedLibrary's routing, merged search and thread safety.
+ */
+public class FederatedLibraryTest {
+
+    /*
+     * NOTE: tests of the Library spec run against FederatedLibrary in LibraryTest.java.
+     */
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * buy(): copies of one book spread over branches; allCopies() and availableCopies() gather them all.
+     * find(): same books in the same order as one BigLibrary holding every copy; a book held by
+     *   several branches appears once.
+     * one branch, many branches.
+     * Several threads circulating and losing copies at once.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+
+    @Test
+    public void testCopiesSpreadOverBranches() {
+        FederatedLibrary library = new FederatedLibrary(3);
+        List<BookCopy> copies = new ArrayList<BookCopy>();
+        for (int i = 0; i < 6; i++) { copies.add(library.buy(normalBook)); }
+        assertNotSame("copies must go to different branches", copies.get(0).owner(), copies.get(1).owner());
+        library.checkout(copies.get(4));
+        assertEquals(6, library.allCopies(normalBook).size());
+        assertEquals(5, library.availableCopies(normalBook).size());
+        assertFalse(library.isAvailable(copies.get(4)));
+        library.lose(copies.get(4));
+        assertEquals(5, library.allCopies(normalBook).size());
+        assertEquals(Arrays.asList(normalBook), library.find("normal book"));
+        library.shutdown();
+    }
+
+    @Test
+    public void testFindAgainstBigLibrary() {
+        for (int branches : new int[] { 1, 5 }) {
+            Random random = new Random(6005);
+            FederatedLibrary federated = new FederatedLibrary(branches);
+            BigLibrary single = new BigLibrary();
+            for (int i = 0; i < 300; i++) {
+                Book book = new Book(randomWords(random, 3), Arrays.asList(randomWords(random, 2)), 1900 + random.nextInt(100));
+                federated.buy(book);
+                single.buy(book);
+                if (i % 3 == 0) {
+                    federated.buy(book);
+                    single.buy(book);
+                }
+            }
+            for (int i = 0; i < 100; i++) {
+                String query = randomWords(random, 1 + random.nextInt(2));
+                assertEquals("Results differ for query " + query, single.find(query), federated.find(query));
+            }
+            federated.shutdown();
+        }
+    }
+
+    private static String randomWords(Random random, int count) {
+        String alphabet = "abcdeAB";
+        StringBuilder words = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) { words.append(' '); }
+            int length = 1 + random.nextInt(5);
+            for (int i = 0; i < length; i++) { words.append(alphabet.charAt(random.nextInt(alphabet.length()))); }
+        }
+        return words.toString();
+    }
+
+    @Test
+    public void testConcurrentCirculation() throws InterruptedException {
+        final FederatedLibrary library = new FederatedLibrary(4);
+        final int threads = 8;
+        final int rounds = 300;
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final Book book = new Book("Title " + t, Arrays.asList("Author"), 2000);
+            workers.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int round = 0; round < rounds; round++) {
+                        BookCopy copy = library.buy(book);
+                        BookCopy kept = library.buy(book);
+                        library.checkout(copy);
+                        library.checkout(kept);
+                        library.checkin(kept);
+                        library.lose(copy);
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) { worker.start(); }
+        for (Thread worker : workers) { worker.join(); }
+        for (int t = 0; t < threads; t++) {
+            Book book = new Book("Title " + t, Arrays.asList("Author"), 2000);
+            assertEquals(rounds, library.allCopies(book).size());
+            assertEquals(rounds, library.availableCopies(book).size());
+        }
+        assertEquals(threads, library.find("title").size());
+        library.shutdown();
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,204 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test suite for the operations IndexedLibrary adds to the Library ADT.
+ */
+@RunWith(Parameterized.class)
+public class IndexedLibraryTest {
+
+    /*
+     * NOTE: tests of the Library operations themselves belong in LibraryTest.java.
+     */
+
+    @Parameters(name="{0}")
+    public static Object[] allImplementationClassNames() {
+        return new Object[] {
+            "library.BigLibrary",
+            "library.IndexedSmallLibrary"
+        };
+    }
+
+    @Parameter
+    public String implementationClassName;
+
+    public IndexedLibrary makeLibrary() {
+        try {
+            Class<?> cls = Class.forName(implementationClassName);
+            return (IndexedLibrary) cls.newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (InstantiationException e) {
+            throw new RuntimeException(e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * availableCount(), totalCount():
+     *  book not in library. after buy. after checkout and checkin. after lose of available and
+     *  checked out copies. always agree with availableCopies().size() and allCopies().size().
+     * allCopiesView(), availableCopiesView():
+     *  book not in library. same elements as allCopies()/availableCopies(). reflect later checkout.
+     *  mutating the view throws and does not alter the library.  many copies checked out, checked in
+     *  and lost in mixed order, views agreeing with isAvailable() throughout; copies of another library.
+     * findByTitle(), findByAuthor():
+     *  no match. one and several matches, ordered newest first then by title; author in any
+     *  position of several; case-sensitive; books sharing a title with another's author;
+     *  after the last copy of a book is lost.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+
+    @Test
+    public void testCountsNotInLibrary() {
+        IndexedLibrary library = makeLibrary();
+        assertEquals(0, library.availableCount(normalBook));
+        assertEquals(0, library.totalCount(normalBook));
+    }
+
+    @Test
+    public void testCountsCirculation() {
+        IndexedLibrary library = makeLibrary();
+        BookCopy first = library.buy(normalBook);
+        BookCopy second = library.buy(normalBook);
+        library.buy(normalBook);
+        assertCounts(library, 3, 3);
+        library.checkout(first);
+        library.checkout(second);
+        assertCounts(library, 1, 3);
+        library.checkin(first);
+        assertCounts(library, 2, 3);
+        library.lose(second);
+        assertCounts(library, 2, 2);
+        library.lose(first);
+        assertCounts(library, 1, 1);
+    }
+
+    @Test
+    public void testViewsNotInLibrary() {
+        IndexedLibrary library = makeLibrary();
+        assertTrue(library.allCopiesView(normalBook).isEmpty());
+        assertTrue(library.availableCopiesView(normalBook).isEmpty());
+    }
+
+    @Test
+    public void testViewsMatchCopies() {
+        IndexedLibrary library = makeLibrary();
+        BookCopy first = library.buy(normalBook);
+        library.buy(normalBook);
+        Set<BookCopy> available = library.availableCopiesView(normalBook);
+        assertEquals(library.allCopies(normalBook), library.allCopiesView(normalBook));
+        assertEquals(library.availableCopies(normalBook), available);
+        library.checkout(first);
+        assertFalse("View should reflect checkout", available.contains(first));
+        assertEquals(library.availableCopies(normalBook), available);
+    }
+
+    @Test
+    public void testViewsManyCopies() {
+        IndexedLibrary library = makeLibrary();
+        List<BookCopy> copies = new ArrayList<BookCopy>();
+        for (int i = 0; i < 20; i++) { copies.add(library.buy(normalBook)); }
+        Set<BookCopy> all = library.allCopiesView(normalBook);
+        Set<BookCopy> available = library.availableCopiesView(normalBook);
+        for (int i = 0; i < 20; i += 3) { library.checkout(copies.get(i)); }
+        for (int i = 0; i < 20; i += 6) { library.checkin(copies.get(i)); }
+        library.lose(copies.get(3));
+        library.lose(copies.get(4));
+        library.checkout(copies.get(4));
+        copies.remove(4);
+        copies.remove(3);
+        assertEquals(new HashSet<BookCopy>(copies), all);
+        int availableCopies = 0;
+        for (BookCopy copy : copies) {
+            assertEquals(library.isAvailable(copy), available.contains(copy));
+            if (library.isAvailable(copy)) { availableCopies++; }
+        }
+        assertEquals(availableCopies, available.size());
+        assertEquals(available.size(), new HashSet<BookCopy>(available).size());
+        for (BookCopy copy : available) { assertTrue(library.isAvailable(copy)); }
+        BookCopy foreign = makeLibrary().buy(normalBook);
+        assertFalse(all.contains(foreign));
+        assertFalse(available.contains(foreign));
+    }
+
+    @Test
+    public void testViewsUnmodifiable() {
+        IndexedLibrary library = makeLibrary();
+        library.buy(normalBook);
+        try {
+            library.allCopiesView(normalBook).add(new BookCopy(normalBook));
+            fail("allCopiesView should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            library.availableCopiesView(normalBook).clear();
+            fail("availableCopiesView should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(1, library.totalCount(normalBook));
+        assertEquals(1, library.availableCount(normalBook));
+    }
+
+    @Test
+    public void testFindByTitleAndAuthor() {
+        IndexedLibrary library = makeLibrary();
+        Book older = new Book("Normal Book", Arrays.asList("Someone Else", "Normal Author"), 1980);
+        Book other = new Book("Normal Author", Arrays.asList("Normal Book"), 2000);
+        Book aOther = new Book("A Title", Arrays.asList("Normal Author"), 1992);
+        library.buy(normalBook);
+        library.buy(older);
+        library.buy(other);
+        BookCopy lost = library.buy(aOther);
+        assertEquals(Arrays.asList(normalBook, older), library.findByTitle("Normal Book"));
+        assertEquals(Arrays.asList(aOther, normalBook, older), library.findByAuthor("Normal Author"));
+        assertEquals(Arrays.asList(other), library.findByTitle("Normal Author"));
+        assertEquals(Arrays.asList(older), library.findByAuthor("Someone Else"));
+        assertTrue(library.findByAuthor("normal author").isEmpty());
+        assertTrue(library.findByTitle("Nobody").isEmpty());
+        library.lose(lost);
+        assertEquals(Arrays.asList(normalBook, older), library.findByAuthor("Normal Author"));
+        assertTrue(library.findByTitle("A Title").isEmpty());
+    }
+
+    private void assertCounts(IndexedLibrary library, int available, int total) {
+        assertEquals("availableCount wrong", available, library.availableCount(normalBook));
+        assertEquals("totalCount wrong", total, library.totalCount(normalBook));
+        assertEquals("availableCount disagrees with availableCopies",
+                library.availableCopies(normalBook).size(), library.availableCount(normalBook));
+        assertEquals("totalCount disagrees with allCopies",
+                library.allCopies(normalBook).size(), library.totalCount(normalBook));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,199 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test suite for JournaledLibrary's recovery and group commit.
+ */
+public class JournaledLibraryTest {
+
+    /*
+     * NOTE: tests of the Library spec run against JournaledLibrary in LibraryTest.java.
+     */
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * Recovery without close() (as after a crash): from the log only, from a snapshot only,
+     *   from a snapshot plus the log after it, with a torn record at the end of the log.
+     * Recovered state: copies available, checked out, damaged and lost; books whose last copy was lost;
+     *   books whose title and author are longer than 64KB of UTF-8, from the log and from a snapshot.
+     * Reopening files written by another JVM that has since exited.
+     * Several threads circulating and buying at once, with snapshots taken along the way.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+    private final Book otherBook = new Book("Other Title", Arrays.asList("Someone", "Else"), 2001);
+
+    private final List<File> directories = new ArrayList<File>();
+
+    // JournaledLibrary(File, int) keeps its files, so each test's directory is deleted after it
+    private File makeDirectory() throws IOException {
+        File directory = Files.createTempDirectory("library").toFile();
+        directories.add(directory);
+        return directory;
+    }
+
+    @After
+    public void deleteDirectories() {
+        for (File directory : directories) { ChildProcess.delete(directory); }
+    }
+
+    // buy, circulate and lose copies; assertCirculated() checks the state this leaves
+    private void circulate(JournaledLibrary library) {
+        library.buy(normalBook);
+        BookCopy checkedOut = library.buy(normalBook);
+        BookCopy damaged = library.buy(normalBook);
+        BookCopy lost = library.buy(otherBook);
+        library.checkout(checkedOut);
+        library.checkout(damaged);
+        damaged.setCondition(BookCopy.Condition.DAMAGED);
+        library.checkin(damaged);
+        library.lose(lost);
+    }
+
+    private void assertCirculated(JournaledLibrary library) {
+        assertEquals(3, library.allCopies(normalBook).size());
+        assertEquals(2, library.availableCopies(normalBook).size());
+        assertTrue(library.allCopies(otherBook).isEmpty());
+        int damagedCount = 0;
+        for (BookCopy copy : library.allCopies(normalBook))
+            if (copy.getCondition() == BookCopy.Condition.DAMAGED) { damagedCount++; }
+        assertEquals(1, damagedCount);
+        assertEquals(Arrays.asList(normalBook), library.find("normal"));
+    }
+
+    @Test
+    public void testRecoverFromLog() throws IOException {
+        File directory = makeDirectory();
+        circulate(new JournaledLibrary(directory, 1000));
+        assertCirculated(new JournaledLibrary(directory, 1000));
+    }
+
+    @Test
+    public void testRecoverFromSnapshot() throws IOException {
+        File directory = makeDirectory();
+        JournaledLibrary library = new JournaledLibrary(directory, 1000);
+        circulate(library);
+        library.snapshot();
+        assertCirculated(new JournaledLibrary(directory, 1000));
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndLog() throws IOException {
+        File directory = makeDirectory();
+        JournaledLibrary library = new JournaledLibrary(directory, 3);
+        circulate(library);
+        BookCopy copy = library.buy(otherBook);
+        library.checkout(copy);
+        JournaledLibrary recovered = new JournaledLibrary(directory, 3);
+        assertCirculatedPlusOther(recovered);
+        // the recovered library keeps logging after the records it replayed
+        recovered.checkin(recovered.allCopies(otherBook).iterator().next());
+        assertEquals(1, new JournaledLibrary(directory, 3).availableCopies(otherBook).size());
+    }
+
+    @Test
+    public void testLongStrings() throws IOException {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 40000; i++) { title.append('\u00e9'); }
+        Book longBook = new Book(title.toString(), Arrays.asList(title + " Author"), 2000);
+        File directory = makeDirectory();
+        JournaledLibrary library = new JournaledLibrary(directory, 1000);
+        library.checkout(library.buy(longBook));
+        JournaledLibrary recovered = new JournaledLibrary(directory, 1000);
+        assertEquals(1, recovered.allCopies(longBook).size());
+        assertTrue(recovered.availableCopies(longBook).isEmpty());
+        recovered.snapshot();
+        assertEquals(longBook, new JournaledLibrary(directory, 1000).allCopies(longBook).iterator().next().getBook());
+    }
+
+    /**
+     * Circulate copies in a library in a directory, with a snapshot along the way, and exit, for
+     * testReopenInAnotherProcess().
+     * @param args the directory
+     */
+    public static void main(String[] args) throws IOException {
+        JournaledLibrary library = new JournaledLibrary(new File(args[0]), 3);
+        new JournaledLibraryTest().circulate(library);
+        library.checkout(library.buy(new JournaledLibraryTest().otherBook));
+        library.close();
+    }
+
+    @Test
+    public void testReopenInAnotherProcess() throws IOException, InterruptedException {
+        File directory = makeDirectory();
+        ChildProcess.run(JournaledLibraryTest.class, directory.getPath());
+        assertCirculatedPlusOther(new JournaledLibrary(directory, 3));
+    }
+
+    private void assertCirculatedPlusOther(JournaledLibrary library) {
+        assertEquals(3, library.allCopies(normalBook).size());
+        assertEquals(2, library.availableCopies(normalBook).size());
+        assertEquals(1, library.allCopies(otherBook).size());
+        assertTrue(library.availableCopies(otherBook).isEmpty());
+    }
+
+    @Test
+    public void testRecoverTornRecord() throws IOException {
+        File directory = makeDirectory();
+        circulate(new JournaledLibrary(directory, 1000));
+        FileOutputStream log = new FileOutputStream(new File(directory, "log.0"), true);
+        log.write(new byte[] { 0, 0, 0, 40, 1, 2, 3, 4, 5 });
+        log.close();
+        JournaledLibrary recovered = new JournaledLibrary(directory, 1000);
+        assertCirculated(recovered);
+        recovered.buy(otherBook);
+        assertEquals(1, new JournaledLibrary(directory, 1000).allCopies(otherBook).size());
+    }
+
+    @Test
+    public void testConcurrentGroupCommit() throws IOException, InterruptedException {
+        File directory = makeDirectory();
+        final JournaledLibrary library = new JournaledLibrary(directory, 500);
+        final int threads = 8;
+        final int rounds = 200;
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            final Book book = new Book("Title " + i, Arrays.asList("Author"), 2000);
+            workers.add(new Thread(new Runnable() {
+                public void run() {
+                    BookCopy copy = library.buy(book);
+                    for (int round = 0; round < rounds; round++) {
+                        library.checkout(copy);
+                        library.checkin(copy);
+                        library.buy(book);
+                    }
+                    library.checkout(copy);
+                }
+            }));
+        }
+        for (Thread worker : workers) { worker.start(); }
+        for (Thread worker : workers) { worker.join(); }
+        JournaledLibrary recovered = new JournaledLibrary(directory, 500);
+        for (int i = 0; i < threads; i++) {
+            Book book = new Book("Title " + i, Arrays.asList("Author"), 2000);
+            assertEquals(rounds + 1, recovered.allCopies(book).size());
+            assertEquals(rounds, recovered.availableCopies(book).size());
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -35,7 +35,14 @@ public class LibraryTest {
     public static Object[] allImplementationClassNames() {
         return new Object[] { 
             "library.SmallLibrary", 
-            "library.BigLibrary"
+            "library.IndexedSmallLibrary",
+            "library.BigLibrary",
+            "library.ConcurrentBigLibrary",
+            "library.MappedLibrary",
+            "library.JournaledLibrary",
+            "library.FederatedLibrary",
+            "library.ColumnarLibrary",
+            "library.OffHeapLibrary"
         }; 
     }
 
@@ -76,7 +83,7 @@ public class LibraryTest {
      * checkin():
      *  only copy of book.  Multiple copies of book.
      * isAvailable():
-     *  is available. is checkout out. not in library at all
+     *  is available. is checkout out. not in library at all. bought from a different library.
      * allCopies():
      *  one copy. multiple copies. copy available. copy not available. If mutate return does not alter behavior.
      * availableCopies():
@@ -84,6 +91,7 @@ public class LibraryTest {
      * find():
      *  exact title match. exact author match. multiple matches. same title and authors, but diff date, newest first.
      *  multiple copies of same book (only once in list).  If mutate return does not alter behavior. 
+     *  title and author with no letter or digit.
      * lose():
      *  multiple copies. one copy. copy started as available. copy started as not available.
      */
@@ -153,6 +161,16 @@ public class LibraryTest {
         assertTrue("Find must return a list containing" + normalBook.toString(), books.contains(normalBook));
     }
     
+    @Test
+    public void testFindPunctuationOnly() {
+        Library library = makeLibrary();
+        Book marks = new Book("???", Arrays.asList("\u2014"), 2000);
+        library.buy(normalBook);
+        library.buy(marks);
+        assertTrue("Find must return a book by its title", library.find(marks.getTitle()).contains(marks));
+        assertTrue("Find must return a book by its author", library.find(marks.getAuthors().get(0)).contains(marks));
+    }
+    
     @Test
     public void testFindMutateReturn() {
         Library library = makeLibrary();
@@ -200,6 +218,15 @@ public class LibraryTest {
         assertFalse("Book should not be available if not in library", library.isAvailable(book));
     }
     
+    @Test
+    public void testIsAvailableOtherLibrary() {
+        Library library = makeLibrary();
+        Library other = makeLibrary();
+        library.buy(normalBook);
+        BookCopy foreign = other.buy(normalBook);
+        assertFalse("Copy from another library should not be available", library.isAvailable(foreign));
+    }
+    
     @Test
     public void testCheckoutOne() {
         Library library = makeLibrary();
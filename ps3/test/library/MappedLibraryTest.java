@@ -0,0 +1,144 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test suite for MappedLibrary's persistence.
+ */
+public class MappedLibraryTest {
+
+    /*
+     * NOTE: tests of the Library spec run against MappedLibrary in LibraryTest.java.
+     */
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * Reopening a directory: empty library. copies available, checked out, damaged and lost.
+     *   books whose last copy was lost. enough books to grow every file and the hash table.
+     *   files written by another JVM that has since exited.
+     * find() after reopening, before and after further changes.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+    private final Book otherBook = new Book("Other Title", Arrays.asList("Someone", "Else"), 2001);
+
+    private final List<File> directories = new ArrayList<File>();
+
+    // MappedLibrary(File) keeps its files, so each test's directory is deleted after it
+    private File makeDirectory() throws IOException {
+        File directory = Files.createTempDirectory("library").toFile();
+        directories.add(directory);
+        return directory;
+    }
+
+    @After
+    public void deleteDirectories() {
+        for (File directory : directories) { ChildProcess.delete(directory); }
+    }
+
+    /**
+     * Write a small library into a directory and exit, for testReopenInAnotherProcess().
+     * @param args the directory
+     */
+    public static void main(String[] args) throws IOException {
+        MappedLibrary library = new MappedLibrary(new File(args[0]));
+        Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+        library.buy(normalBook);
+        library.checkout(library.buy(normalBook));
+        library.close();
+    }
+
+    @Test
+    public void testReopenInAnotherProcess() throws IOException, InterruptedException {
+        File directory = makeDirectory();
+        ChildProcess.run(MappedLibraryTest.class, directory.getPath());
+        MappedLibrary library = new MappedLibrary(directory);
+        assertEquals(2, library.allCopies(normalBook).size());
+        assertEquals(1, library.availableCopies(normalBook).size());
+        assertEquals(Arrays.asList(normalBook), library.find("normal"));
+        library.close();
+    }
+
+    @Test
+    public void testReopenEmpty() throws IOException {
+        File directory = makeDirectory();
+        new MappedLibrary(directory).close();
+        MappedLibrary library = new MappedLibrary(directory);
+        assertTrue(library.allCopies(normalBook).isEmpty());
+        assertTrue(library.find("normal").isEmpty());
+        library.close();
+    }
+
+    @Test
+    public void testReopenCirculation() throws IOException {
+        File directory = makeDirectory();
+        MappedLibrary library = new MappedLibrary(directory);
+        BookCopy available = library.buy(normalBook);
+        BookCopy checkedOut = library.buy(normalBook);
+        BookCopy damaged = library.buy(normalBook);
+        BookCopy lost = library.buy(otherBook);
+        library.checkout(checkedOut);
+        library.checkout(damaged);
+        damaged.setCondition(BookCopy.Condition.DAMAGED);
+        library.checkin(damaged);
+        library.lose(lost);
+        library.close();
+
+        library = new MappedLibrary(directory);
+        assertEquals(3, library.allCopies(normalBook).size());
+        assertEquals(2, library.availableCopies(normalBook).size());
+        assertTrue(library.allCopies(otherBook).isEmpty());
+        int damagedCount = 0;
+        for (BookCopy copy : library.availableCopies(normalBook)) {
+            assertTrue(library.isAvailable(copy));
+            if (copy.getCondition() == BookCopy.Condition.DAMAGED) { damagedCount++; }
+        }
+        assertEquals(1, damagedCount);
+        assertFalse("copies of a closed library are not in the reopened one", library.isAvailable(available));
+        assertEquals(Arrays.asList(normalBook), library.find("normal"));
+        library.buy(otherBook);
+        assertEquals(Arrays.asList(otherBook), library.find("other title"));
+        library.close();
+    }
+
+    @Test
+    public void testReopenManyBooks() throws IOException {
+        File directory = makeDirectory();
+        MappedLibrary library = new MappedLibrary(directory);
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 2000; i++) {
+            Book book = new Book("Title " + i, Arrays.asList("Author " + (i % 7)), 1900 + i % 100);
+            books.add(book);
+            library.buy(book);
+            if (i % 3 == 0) { library.checkout(library.buy(book)); }
+        }
+        library.close();
+
+        library = new MappedLibrary(directory);
+        for (int i = 0; i < books.size(); i++) {
+            assertEquals("copies of " + i, i % 3 == 0 ? 2 : 1, library.allCopies(books.get(i)).size());
+            assertEquals("available copies of " + i, 1, library.availableCopies(books.get(i)).size());
+        }
+        assertEquals(books.get(1234), library.find("title 1234").get(0));
+        library.close();
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,172 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Differential test suite for MatchEngine implementations against the reference SubstringMatchEngine.
+ */
+@RunWith(Parameterized.class)
+public class MatchEngineTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * match():
+     *  empty engine. exact title. exact author. no match. minLength <= 0 returns every book.
+     *  common substring at the start, the end, or only the middle of the query; books sharing many
+     *  n-grams with the query but no long enough substring.
+     *  random catalogs and queries give the same scores as the reference engine.
+     * add()/remove():
+     *  adding a book twice. removing a book not present. removing most books (forces a rebuild).
+     * addAll():
+     *  books already present, repeated books; same scores as adding one at a time.
+     */
+
+    @Parameters(name="{0}")
+    public static Object[] allImplementationClassNames() {
+        return new Object[] {
+            "library.NgramMatchEngine",
+            "library.SuffixAutomatonEngine"
+        };
+    }
+
+    @Parameter
+    public String implementationClassName;
+
+    public MatchEngine makeEngine() {
+        try {
+            Class<?> cls = Class.forName(implementationClassName);
+            return (MatchEngine) cls.newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (InstantiationException e) {
+            throw new RuntimeException(e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+    private final Book otherBook = new Book("Other Title", Arrays.asList("Someone", "Else"), 2001);
+
+    @Test
+    public void testEmpty() {
+        MatchEngine engine = makeEngine();
+        assertTrue(engine.match("normal", 4).isEmpty());
+        assertTrue(engine.match("", 0).isEmpty());
+    }
+
+    @Test
+    public void testMatchWindows() {
+        MatchEngine engine = makeEngine();
+        Book start = new Book("Normal Bo", Arrays.asList("Zed"), 1990);
+        Book end = new Book("Mal Book X", Arrays.asList("Zed"), 1990);
+        Book scattered = new Book("Norm Book Mal", Arrays.asList("Zed"), 1990);
+        engine.add(start);
+        engine.add(end);
+        engine.add(scattered);
+        engine.add(otherBook);
+        assertEquals(Integer.valueOf(9), engine.match("normal book", 9).get(start));
+        assertEquals(Integer.valueOf(9), engine.match("xnormal bo", 8).get(start));
+        assertEquals(Integer.valueOf(8), engine.match("mal book", 6).get(end));
+        assertEquals(new HashSet<Book>(Arrays.asList(start, end)), engine.match("normal book", 8).keySet());
+    }
+
+    @Test
+    public void testExactTitleAndAuthor() {
+        MatchEngine engine = makeEngine();
+        engine.add(normalBook);
+        engine.add(otherBook);
+        assertEquals(Integer.valueOf(11), engine.match("normal book", 9).get(normalBook));
+        assertEquals(Integer.valueOf(13), engine.match("normal author", 11).get(normalBook));
+        assertFalse(engine.match("normal author", 11).containsKey(otherBook));
+        assertTrue(engine.match("zzzz", 2).isEmpty());
+    }
+
+    @Test
+    public void testNonPositiveMinLength() {
+        MatchEngine engine = makeEngine();
+        engine.add(normalBook);
+        engine.add(otherBook);
+        assertEquals(2, engine.match("zz", 0).size());
+        assertEquals(Integer.valueOf(0), engine.match("zz", 0).get(otherBook));
+    }
+
+    @Test
+    public void testAddTwiceRemoveMissing() {
+        MatchEngine engine = makeEngine();
+        engine.add(normalBook);
+        engine.add(normalBook);
+        engine.remove(otherBook);
+        assertEquals(1, engine.match("normal", 4).size());
+        engine.remove(normalBook);
+        assertTrue(engine.match("normal", 4).isEmpty());
+    }
+
+    @Test
+    public void testAddAll() {
+        MatchEngine engine = makeEngine();
+        engine.add(normalBook);
+        engine.addAll(Arrays.asList(normalBook, otherBook, otherBook));
+        assertEquals(2, engine.match("", 0).size());
+        assertEquals(Integer.valueOf(11), engine.match("other title", 9).get(otherBook));
+        engine.remove(otherBook);
+        assertTrue(engine.match("other title", 9).isEmpty());
+    }
+
+    @Test
+    public void testRandomAgainstReference() {
+        Random random = new Random(6005);
+        MatchEngine engine = makeEngine();
+        MatchEngine reference = new SubstringMatchEngine();
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 300; i++) {
+            Book book = new Book(randomWords(random, 3), Arrays.asList(randomWords(random, 2)), 1900 + random.nextInt(100));
+            books.add(book);
+            if (i % 2 == 0) { engine.add(book); }
+            reference.add(book);
+        }
+        engine.addAll(books);
+        for (int i = 0; i < 200; i++) {
+            Book book = books.get(random.nextInt(books.size()));
+            engine.remove(book);
+            reference.remove(book);
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = randomWords(random, 1 + random.nextInt(2)).toLowerCase();
+            int minLength = query.length() - 2;
+            assertEquals("Scores differ for query " + query, reference.match(query, minLength), engine.match(query, minLength));
+        }
+    }
+
+    private static String randomWords(Random random, int count) {
+        String alphabet = "abcdeAB";
+        StringBuilder words = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) { words.append(' '); }
+            int length = 1 + random.nextInt(5);
+            for (int i = 0; i < length; i++) { words.append(alphabet.charAt(random.nextInt(alphabet.length()))); }
+        }
+        return words.toString();
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,168 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test suite for OffHeapLibrary's flyweight copies, growth and search index.
+ */
+public class OffHeapLibraryTest {
+
+    /*
+     * NOTE: tests of the Library spec run against OffHeapLibrary in LibraryTest.java.
+     */
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * Copy handles: returned by buy() vs. allCopies()/availableCopies(); equal, same hash code, same book.
+     *   setCondition() through one handle seen through another; toString() of a damaged handle.
+     *   handle of a lost copy after more copies are bought; handles of another OffHeapLibrary.
+     * Growth: enough books, authors and copies to grow every arena and both hash tables; books
+     *   whose copies are all lost, then bought again.
+     * Compaction: more books losing every copy than keep one, so they are dropped; lost handles of
+     *   dropped books, and of kept books, after one and several compactions; dropped book bought again;
+     *   find() and copies of kept books after compaction.
+     * find(): query shorter than an n-gram, so every book is a candidate; text with repeated n-grams;
+     *   non-ASCII text; query sharing n-grams with books that have no copies.
+     */
+
+    private final Book normalBook = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+    private final Book otherBook = new Book("Other Title", Arrays.asList("Someone", "Else"), 2001);
+
+    @Test
+    public void testHandlesEqual() {
+        OffHeapLibrary library = new OffHeapLibrary();
+        BookCopy bought = library.buy(normalBook);
+        BookCopy other = library.buy(normalBook);
+        Set<BookCopy> all = library.allCopies(normalBook);
+        assertEquals(new HashSet<BookCopy>(Arrays.asList(bought, other)), all);
+        for (BookCopy copy : all) {
+            assertEquals(normalBook, copy.getBook());
+            if (copy.equals(bought)) { assertEquals(bought.hashCode(), copy.hashCode()); }
+        }
+        assertNotEquals(bought, other);
+        assertNotEquals("handles of another library", bought, new OffHeapLibrary().buy(normalBook));
+    }
+
+    @Test
+    public void testConditionThroughHandles() {
+        OffHeapLibrary library = new OffHeapLibrary();
+        BookCopy bought = library.buy(otherBook);
+        library.checkout(bought);
+        bought.setCondition(BookCopy.Condition.DAMAGED);
+        library.checkin(bought);
+        BookCopy found = library.availableCopies(otherBook).iterator().next();
+        assertEquals(BookCopy.Condition.DAMAGED, found.getCondition());
+        assertTrue(found.toString().contains("damaged"));
+        found.setCondition(BookCopy.Condition.GOOD);
+        assertEquals(BookCopy.Condition.GOOD, bought.getCondition());
+    }
+
+    @Test
+    public void testLostHandle() {
+        OffHeapLibrary library = new OffHeapLibrary();
+        BookCopy lost = library.buy(normalBook);
+        library.lose(lost);
+        BookCopy bought = library.buy(normalBook);
+        assertFalse(library.isAvailable(lost));
+        library.checkin(lost);
+        assertFalse(library.isAvailable(lost));
+        assertEquals(new HashSet<BookCopy>(Arrays.asList(bought)), library.allCopies(normalBook));
+        library.lose(lost);
+        assertTrue(library.isAvailable(bought));
+    }
+
+    @Test
+    public void testManyBooks() {
+        OffHeapLibrary library = new OffHeapLibrary();
+        List<Book> books = new ArrayList<Book>();
+        List<BookCopy> extras = new ArrayList<BookCopy>();
+        for (int i = 0; i < 2000; i++) {
+            Book book = new Book("Title " + i, Arrays.asList("Author " + (i % 7), "Editor " + i), 1900 + i % 100);
+            books.add(book);
+            library.buy(book);
+            if (i % 3 == 0) { extras.add(library.buy(book)); }
+        }
+        for (BookCopy copy : extras) { library.checkout(copy); }
+        for (int i = 0; i < books.size(); i++) {
+            assertEquals("copies of " + i, i % 3 == 0 ? 2 : 1, library.allCopies(books.get(i)).size());
+            assertEquals("available copies of " + i, 1, library.availableCopies(books.get(i)).size());
+        }
+        assertEquals(books.get(1234), library.find("title 1234").get(0));
+
+        Book gone = books.get(5);
+        for (BookCopy copy : library.allCopies(gone)) { library.lose(copy); }
+        assertTrue(library.allCopies(gone).isEmpty());
+        assertFalse(library.find("title 5").contains(gone));
+        library.buy(gone);
+        assertEquals(1, library.availableCopies(gone).size());
+        assertTrue(library.find("title 5").contains(gone));
+    }
+
+    @Test
+    public void testCompaction() {
+        OffHeapLibrary library = new OffHeapLibrary();
+        List<Book> books = new ArrayList<Book>();
+        List<BookCopy> lost = new ArrayList<BookCopy>();
+        for (int i = 0; i < 300; i++) {
+            Book book = new Book("Title " + i, Arrays.asList("Author " + (i % 7)), 1900 + i % 100);
+            books.add(book);
+            BookCopy copy = library.buy(book);
+            if (i % 10 == 0) { lost.add(library.buy(book)); }
+            else if (i % 3 != 0) { lost.add(copy); }
+        }
+        for (BookCopy copy : lost) { library.lose(copy); }
+        assertTrue("dead books dropped", library.recordedBooks() <= 2 * 120);
+        for (int i = 0; i < books.size(); i++) {
+            boolean kept = i % 3 == 0 || i % 10 == 0;
+            assertEquals("copies of " + i, kept ? 1 : 0, library.allCopies(books.get(i)).size());
+            assertEquals("find " + i, kept, library.find("title " + i).contains(books.get(i)));
+        }
+        for (BookCopy copy : lost) {
+            assertEquals(books.get(Integer.parseInt(copy.getBook().getTitle().substring(6))), copy.getBook());
+            assertFalse(library.isAvailable(copy));
+        }
+
+        Book again = books.get(1);
+        BookCopy bought = library.buy(again);
+        assertEquals(new HashSet<BookCopy>(Arrays.asList(bought)), library.allCopies(again));
+        library.lose(bought);
+        for (Book book : books) {
+            for (BookCopy copy : library.allCopies(book)) { library.lose(copy); }
+        }
+        assertEquals(0, library.recordedBooks());
+        assertTrue(library.find("title").isEmpty());
+        assertEquals(again, bought.getBook());
+        assertEquals(books.get(299), lost.get(lost.size() - 1).getBook());
+    }
+
+    @Test
+    public void testFindGrams() {
+        OffHeapLibrary library = new OffHeapLibrary();
+        Book repeated = new Book("Aaaa Aaaa", Arrays.asList("Baaaa"), 1990);
+        Book accented = new Book("Les Mis\u00e9rables", Arrays.asList("Victor Hugo"), 1862);
+        library.buy(repeated);
+        library.lose(library.buy(otherBook));
+        library.buy(accented);
+        assertEquals(Arrays.asList(repeated), library.find("aaaa"));
+        assertEquals(Arrays.asList(accented), library.find("MIS\u00c9RABLE"));
+        assertTrue(library.find("other title").isEmpty());
+        assertEquals(new HashSet<Book>(Arrays.asList(repeated, accented)), new HashSet<Book>(library.find("ab")));
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
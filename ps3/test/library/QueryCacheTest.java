@@ -0,0 +1,71 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Test suite for QueryCache.
+ */
+public class QueryCacheTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * get()/put(): missing query, cached query, query replaced.  hits and misses counted.
+     * eviction: beyond capacity the least recently used (not least recently put) entry goes; capacity 0.
+     * invalidate(): all entries stop being returned; entries put afterwards are returned.
+     */
+
+    @Test
+    public void testGetPut() {
+        QueryCache<String> cache = new QueryCache<String>(4);
+        assertNull(cache.get("a"));
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        cache.put("a", "2");
+        assertEquals("2", cache.get("a"));
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        QueryCache<String> cache = new QueryCache<String>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        assertNull("b was least recently used", cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void testCapacityZero() {
+        QueryCache<String> cache = new QueryCache<String>(0);
+        cache.put("a", "1");
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void testInvalidate() {
+        QueryCache<String> cache = new QueryCache<String>(4);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.invalidate();
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        cache.put("a", "3");
+        assertEquals("3", cache.get("a"));
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
@@ -0,0 +1,65 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Test suite for RepAudit's sampling of full rep audits.
+ */
+public class RepAuditTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * sample():
+     *  rate 0. size 0, size at most the rate, size much larger than the rate.
+     *  large sizes are sampled at about rate / size.
+     * parseRate():
+     *  unset, a number, 0, with surrounding spaces, malformed, NaN.
+     */
+
+    private static final int TRIALS = 200000;
+
+    @Test
+    public void testRateZero() {
+        assertFalse(RepAudit.sample(0, 0));
+        assertFalse(RepAudit.sample(1000, 0));
+    }
+
+    @Test
+    public void testSmallRepsAlwaysAudited() {
+        assertTrue(RepAudit.sample(0, 1));
+        assertTrue(RepAudit.sample(1, 1));
+        assertTrue(RepAudit.sample(4, 5));
+    }
+
+    @Test
+    public void testParseRate() {
+        assertEquals(1.0, RepAudit.parseRate(null), 0);
+        assertEquals(2.5, RepAudit.parseRate("2.5"), 0);
+        assertEquals(0, RepAudit.parseRate("0"), 0);
+        assertEquals(3, RepAudit.parseRate(" 3 "), 0);
+        assertEquals("malformed falls back to the default", 1.0, RepAudit.parseRate("often"), 0);
+        assertEquals(1.0, RepAudit.parseRate(""), 0);
+        assertEquals(1.0, RepAudit.parseRate("NaN"), 0);
+    }
+
+    @Test
+    public void testLargeRepsSampled() {
+        int audits = 0;
+        for (int i = 0; i < TRIALS; i++)
+            if (RepAudit.sample(1000, 2)) { audits++; }
+        // expected TRIALS * 2 / 1000 = 400 audits; the bounds are over 9 standard deviations away
+        assertTrue("too few audits: " + audits, audits > 220);
+        assertTrue("too many audits: " + audits, audits < 580);
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
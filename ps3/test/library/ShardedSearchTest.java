@@ -0,0 +1,156 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Test suite for ShardedSearch.
+ */
+public class ShardedSearchTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * score(): same scores as one unsharded SubstringSearch, below the threshold (calling thread) and
+     *   at or above it (pool); one shard and several; empty.
+     * score(query, books): same scores as score(query) for the books given, below and above the
+     *   threshold, without any shard scoring all its books; books not indexed left out.
+     * add()/addAll()/remove(): adding twice, removing missing, removing most books; addAll below and
+     *   above the threshold.
+     * BigLibrary with a ShardedSearch: find() agrees with the default BigLibrary.
+     */
+
+    private static List<SearchStrategy> shards(int count) {
+        List<SearchStrategy> shards = new ArrayList<SearchStrategy>();
+        for (int i = 0; i < count; i++) { shards.add(new SubstringSearch(new NgramMatchEngine())); }
+        return shards;
+    }
+
+    private static List<Book> randomBooks(Random random, int count) {
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < count; i++) {
+            books.add(new Book(randomWords(random, 3), Arrays.asList(randomWords(random, 2)), 1900 + random.nextInt(100)));
+        }
+        return books;
+    }
+
+    private static String randomWords(Random random, int count) {
+        String alphabet = "abcdeAB";
+        StringBuilder words = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) { words.append(' '); }
+            int length = 1 + random.nextInt(5);
+            for (int i = 0; i < length; i++) { words.append(alphabet.charAt(random.nextInt(alphabet.length()))); }
+        }
+        return words.toString();
+    }
+
+    private static void assertSameScores(Random random, SearchStrategy expected, SearchStrategy actual) {
+        for (int i = 0; i < 100; i++) {
+            String query = randomWords(random, 1 + random.nextInt(2));
+            assertEquals("Scores differ for query " + query, expected.score(query), actual.score(query));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new ShardedSearch(4).score("normal").isEmpty());
+        assertTrue(new ShardedSearch(shards(3), ForkJoinPool.commonPool(), 0).score("normal").isEmpty());
+    }
+
+    @Test
+    public void testAgainstUnsharded() {
+        for (int threshold : new int[] { 0, 50, 1000 }) {
+            Random random = new Random(6005);
+            SearchStrategy reference = new SubstringSearch(new SubstringMatchEngine());
+            SearchStrategy sharded = new ShardedSearch(shards(5), new ForkJoinPool(3), threshold);
+            List<Book> books = randomBooks(random, 300);
+            for (Book book : books.subList(0, 100)) {
+                reference.add(book);
+                sharded.add(book);
+                sharded.add(book);
+            }
+            reference.addAll(books.subList(100, 300));
+            sharded.addAll(books.subList(100, 300));
+            for (int i = 0; i < 200; i++) {
+                Book book = books.get(random.nextInt(books.size()));
+                reference.remove(book);
+                sharded.remove(book);
+            }
+            assertSameScores(random, reference, sharded);
+        }
+    }
+
+    @Test
+    public void testScoreSubset() {
+        for (int threshold : new int[] { 0, 1000 }) {
+            Random random = new Random(6005);
+            final int[] fullScores = { 0 };
+            List<SearchStrategy> shards = new ArrayList<SearchStrategy>();
+            for (int i = 0; i < 4; i++) {
+                shards.add(new SubstringSearch(new NgramMatchEngine()) {
+                    @Override
+                    public Map<Book, Integer> score(String query) {
+                        synchronized (fullScores) { fullScores[0]++; }
+                        return super.score(query);
+                    }
+                });
+            }
+            SearchStrategy sharded = new ShardedSearch(shards, new ForkJoinPool(3), threshold);
+            List<Book> books = randomBooks(random, 300);
+            sharded.addAll(books.subList(0, 250));
+            List<Book> subset = new ArrayList<Book>(books.subList(200, 300));
+            for (int i = 0; i < 50; i++) {
+                String query = randomWords(random, 1 + random.nextInt(2));
+                Map<Book, Integer> expected = new HashMap<Book, Integer>(sharded.score(query));
+                expected.keySet().retainAll(subset);
+                fullScores[0] = 0;
+                assertEquals("Scores differ for query " + query, expected, sharded.score(query, subset));
+                assertEquals(0, fullScores[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testOneShard() {
+        Random random = new Random(6005);
+        SearchStrategy reference = new SubstringSearch();
+        SearchStrategy sharded = new ShardedSearch(shards(1), ForkJoinPool.commonPool(), 0);
+        List<Book> books = randomBooks(random, 100);
+        reference.addAll(books);
+        sharded.addAll(books);
+        assertSameScores(random, reference, sharded);
+    }
+
+    @Test
+    public void testBigLibrary() {
+        Random random = new Random(6005);
+        BigLibrary sharded = new BigLibrary(new ShardedSearch(shards(4), ForkJoinPool.commonPool(), 0));
+        BigLibrary plain = new BigLibrary();
+        for (Book book : randomBooks(random, 200)) {
+            sharded.buy(book);
+            plain.buy(book);
+        }
+        for (int i = 0; i < 50; i++) {
+            String query = randomWords(random, 1 + random.nextInt(2));
+            assertEquals(plain.find(query), sharded.find(query));
+        }
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
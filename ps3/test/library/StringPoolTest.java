@@ -0,0 +1,113 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test suite for StringPool, and BigLibrary's and Book's use of it.
+ */
+public class StringPoolTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * acquire()/get(): equal strings built separately get the same id and String object; different
+     *   strings different ids; enough strings to grow the table.
+     * release(): string with one use, which leaves the pool; with several uses, which stays until the
+     *   last is released; id of a released string reused.
+     * find(): string in the pool; string not in it, which find() does not add.
+     * separate pools do not share strings.
+     * BigLibrary: books bought with equal strings built separately share them; losing every copy of a
+     *   book releases its strings.
+     * Book.hasAuthor(): first and later authors; title; case; absent author.
+     */
+
+    @Test
+    public void testAcquireAndGet() {
+        StringPool pool = new StringPool();
+        String name = "Normal Author";
+        int id = pool.acquire(name);
+        assertEquals(id, pool.acquire(new String(name)));
+        assertSame(name, pool.get(id));
+        assertNotEquals(id, pool.acquire(name + "x"));
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int i = 0; i < 5000; i++) { ids.add(pool.acquire(name + " " + i)); }
+        for (int i = 0; i < 5000; i++) { assertEquals(name + " " + i, pool.get(ids.get(i))); }
+        assertEquals(5002, pool.size());
+    }
+
+    @Test
+    public void testRelease() {
+        StringPool pool = new StringPool();
+        int once = pool.acquire("Once");
+        int twice = pool.acquire("Twice");
+        pool.acquire("Twice");
+        pool.release(once);
+        assertEquals(-1, pool.find("Once"));
+        pool.release(twice);
+        assertEquals("still has a use", twice, pool.find("Twice"));
+        pool.release(twice);
+        assertEquals(-1, pool.find("Twice"));
+        assertEquals(0, pool.size());
+        int reused = pool.acquire("Again");
+        assertTrue("released id reused", reused == once || reused == twice);
+    }
+
+    @Test
+    public void testFind() {
+        StringPool pool = new StringPool();
+        assertEquals(-1, pool.find("Normal Book"));
+        assertEquals("find() does not add", 0, pool.size());
+        int id = pool.acquire("Normal Book");
+        assertEquals(id, pool.find(new String("Normal Book")));
+        assertEquals(-1, new StringPool().find("Normal Book"));
+    }
+
+    @Test
+    public void testLibrarySharesStrings() {
+        BigLibrary library = new BigLibrary();
+        Book first = library.buy(new Book(new String("Normal Book"), Arrays.asList(new String("Normal Author")), 1992)).getBook();
+        Book second = library.buy(new Book(new String("Other Book"), Arrays.asList(new String("Normal Author")), 2001)).getBook();
+        Book again = library.buy(new Book(new String("Normal Book"), Arrays.asList(new String("Other Author")), 2001)).getBook();
+        assertSame(first.getAuthors().get(0), second.getAuthors().get(0));
+        assertSame(first.getTitle(), again.getTitle());
+        assertNotEquals(first, new Book("Normal Book", Arrays.asList("normal author"), 1992));
+    }
+
+    @Test
+    public void testLibraryReleasesStrings() {
+        BigLibrary library = new BigLibrary();
+        Book book = new Book("Normal Book", Arrays.asList("Normal Author"), 1992);
+        BookCopy first = library.buy(book);
+        BookCopy second = library.buy(book);
+        library.lose(first);
+        library.lose(second);
+        assertTrue(library.allCopies(book).isEmpty());
+        // a book bought again after its strings left the pool is interned afresh
+        String title = new String("Normal Book");
+        assertSame(title, library.buy(new Book(title, Arrays.asList("Normal Author"), 1992)).getBook().getTitle());
+    }
+
+    @Test
+    public void testHasAuthor() {
+        Book book = new Book("Some Title", Arrays.asList("First Author", "Second Author"), 1999);
+        assertTrue(book.hasAuthor("First Author"));
+        assertTrue(book.hasAuthor(new String("Second Author")));
+        assertFalse(book.hasAuthor("Some Title"));
+        assertFalse(book.hasAuthor("first author"));
+        assertFalse(book.hasAuthor("Absent Author"));
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}
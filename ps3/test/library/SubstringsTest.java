@@ -0,0 +1,73 @@
+package library;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Substrings scoring kernel.
+ */
+public class SubstringsTest {
+
+    /*
+     * Testing strategy
+     * ==================
+     *
+     * longestCommon():
+     *  empty strings. identical strings. no common character. match at start, middle, end.
+     *  result at least minLength agrees with the reference DP; result below minLength stays below.
+     *  strings longer than the initial scratch row.
+     */
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, Substrings.longestCommon("", "abc", 0));
+        assertEquals(0, Substrings.longestCommon("abc", "", 0));
+    }
+
+    @Test
+    public void testSimpleMatches() {
+        assertEquals(3, Substrings.longestCommon("abc", "abc", 0));
+        assertEquals(0, Substrings.longestCommon("abc", "xyz", 0));
+        assertEquals(2, Substrings.longestCommon("ab", "xxab", 0));
+        assertEquals(4, Substrings.longestCommon("xbcdex", "abcdef", 0));
+        assertEquals(11, Substrings.longestCommon("normal book", "normal book normal author", 9));
+    }
+
+    @Test
+    public void testLongStrings() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 500; i++) { builder.append((char) ('a' + i % 26)); }
+        String longString = builder.toString();
+        assertEquals(500, Substrings.longestCommon(longString, longString, 10));
+    }
+
+    @Test
+    public void testRandomAgainstReference() {
+        Random random = new Random(6005);
+        for (int i = 0; i < 2000; i++) {
+            String first = randomString(random, 1 + random.nextInt(8));
+            String second = randomString(random, 1 + random.nextInt(30));
+            int minLength = random.nextInt(first.length() + 1);
+            int expected = SubstringMatchEngine.longestSubstr(first, second);
+            int actual = Substrings.longestCommon(first, second, minLength);
+            if (expected >= minLength) { assertEquals(first + " / " + second, expected, actual); }
+            else { assertTrue(first + " / " + second, actual < minLength); }
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) { builder.append("abc ".charAt(random.nextInt(4))); }
+        return builder.toString();
+    }
+
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+
+}